@@ -0,0 +1,79 @@
+package at.porscheinformatik.zanata;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading translations from a local stub server: cold load after {@link ZanataMessageSource#clearCache()} and
+ * {@link ZanataMessageSource#reloadAll()} (with and without 304 responses), sequential and concurrent.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+
+  @Param({"10000"})
+  public int keys;
+
+  @Param({"false", "true"})
+  public boolean parallel;
+
+  @Param({"false", "true"})
+  public boolean conditional;
+
+  private ZanataStubServer server;
+  private ExecutorService executor;
+  private ZanataMessageSource messageSource;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    server = new ZanataStubServer(MessageResolutionBenchmark.BASE_NAMES, MessageResolutionBenchmark.LANGUAGES, keys,
+      conditional);
+    messageSource = MessageResolutionBenchmark.createMessageSource(server);
+    if (parallel) {
+      executor = Executors.newFixedThreadPool(8);
+      messageSource.setFetchExecutor(executor);
+    }
+    messageSource.getMessage("messages.key.1", null, MessageResolutionBenchmark.LOCALE);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    messageSource.destroy();
+    if (executor != null) {
+      executor.shutdown();
+    }
+    server.close();
+  }
+
+  @Benchmark
+  public String coldLoad() {
+    messageSource.clearCache();
+    return messageSource.getMessage("messages.key.1", null, MessageResolutionBenchmark.LOCALE);
+  }
+
+  @Benchmark
+  public String reload() {
+    messageSource.reloadAll();
+    return messageSource.getMessage("messages.key.1", null, MessageResolutionBenchmark.LOCALE);
+  }
+}
@@ -0,0 +1,128 @@
+package at.porscheinformatik.zanata;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups in already loaded translations: <code>resolveCodeWithoutArguments</code> (hits and misses),
+ * <code>resolveCode</code> with formatting and <code>getAllProperties</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageResolutionBenchmark {
+
+  static final List<String> BASE_NAMES = Arrays.asList("messages", "errors", "labels");
+  static final List<String> LANGUAGES = Arrays.asList("de-AT-VARIANT", "de-AT", "de");
+  static final Locale LOCALE = new Locale("de", "AT", "VARIANT");
+
+  @Param({"10000", "100000"})
+  public int keys;
+
+  private ZanataStubServer server;
+  private ZanataMessageSource messageSource;
+  private String[] codes;
+  private String[] argumentCodes;
+  private String[] missingCodes;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    server = new ZanataStubServer(BASE_NAMES, LANGUAGES, keys, false);
+    messageSource = createMessageSource(server);
+    messageSource.getMessage("messages.key.1", null, LOCALE);
+
+    codes = new String[1024];
+    argumentCodes = new String[1024];
+    missingCodes = new String[1024];
+    for (int i = 0; i < codes.length; i++) {
+      String baseName = BASE_NAMES.get(i % BASE_NAMES.size());
+      codes[i] = baseName + ".key." + ThreadLocalRandom.current().nextInt(keys);
+      // keys ending with 5 are translated and contain an argument
+      argumentCodes[i] = baseName + ".key." + (ThreadLocalRandom.current().nextInt(keys / 10) * 10 + 5);
+      // keys ending with 0 are not accepted, "missing" keys exist in no locale
+      missingCodes[i] = i % 2 == 0
+        ? baseName + ".key." + ThreadLocalRandom.current().nextInt(keys / 10) * 10
+        : "missing.key." + i;
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    messageSource.destroy();
+    server.close();
+  }
+
+  static ZanataMessageSource createMessageSource(ZanataStubServer server) {
+    ZanataMessageSource messageSource = new ZanataMessageSource();
+    messageSource.setZanataBaseUrl(server.baseUrl());
+    messageSource.setProject(ZanataStubServer.PROJECT);
+    messageSource.setIteration(ZanataStubServer.ITERATION);
+    messageSource.setBaseNames(BASE_NAMES.toArray(new String[0]));
+    return messageSource;
+  }
+
+  private static int next(String[] values) {
+    return ThreadLocalRandom.current().nextInt(values.length);
+  }
+
+  @Benchmark
+  public String resolveCodeWithoutArguments() {
+    return messageSource.resolveCodeWithoutArguments(codes[next(codes)], LOCALE);
+  }
+
+  @Benchmark
+  public String resolveCodeWithoutArgumentsMiss() {
+    return messageSource.resolveCodeWithoutArguments(missingCodes[next(missingCodes)], LOCALE);
+  }
+
+  @Benchmark
+  public Object resolveCodeMiss() {
+    return messageSource.resolveCode(missingCodes[next(missingCodes)], LOCALE);
+  }
+
+  @Benchmark
+  public String getMessageWithArguments() {
+    return messageSource.getMessage(argumentCodes[next(argumentCodes)], new Object[]{"x"}, LOCALE);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String resolveCodeWithoutArgumentsThreads() {
+    return messageSource.resolveCodeWithoutArguments(codes[next(codes)], LOCALE);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String getMessageWithArgumentsThreads() {
+    return messageSource.getMessage(argumentCodes[next(argumentCodes)], new Object[]{"x"}, LOCALE);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Properties getAllProperties() {
+    return messageSource.getAllProperties(LOCALE);
+  }
+}
@@ -0,0 +1,94 @@
+package at.porscheinformatik.zanata;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP server answering the Zanata REST calls of {@link ZanataMessageSource} with synthetic translations.
+ */
+class ZanataStubServer implements AutoCloseable {
+
+  static final String PROJECT = "bench";
+  static final String ITERATION = "master";
+
+  private final HttpServer server;
+  private final Map<String, byte[]> responses = new HashMap<>();
+
+  /**
+   * @param baseNames the base names to serve
+   * @param languages the Zanata locale ids to serve
+   * @param keys number of texts per base name and language
+   * @param conditional <code>true</code> to answer requests with a matching If-None-Match with 304
+   * @throws IOException if the server cannot be started
+   */
+  ZanataStubServer(List<String> baseNames, List<String> languages, int keys, boolean conditional) throws IOException {
+    String prefix = "/rest/projects/p/" + PROJECT + "/iterations/i/" + ITERATION;
+
+    StringBuilder locales = new StringBuilder("[");
+    for (String language : languages) {
+      locales.append(locales.length() > 1 ? "," : "").append("{\"localeId\":\"").append(language).append("\"}");
+    }
+    responses.put(prefix + "/locales", locales.append("]").toString().getBytes(StandardCharsets.UTF_8));
+
+    for (String baseName : baseNames) {
+      for (String language : languages) {
+        StringBuilder json = new StringBuilder(keys * 120).append("{\"textFlowTargets\":[");
+        for (int i = 0; i < keys; i++) {
+          json.append(i > 0 ? "," : "")
+            .append("{\"resId\":\"").append(baseName).append(".key.").append(i)
+            .append("\",\"state\":\"").append(i % 10 == 0 ? "NeedReview" : "Translated")
+            .append("\",\"content\":\"").append(language).append(" text ").append(i)
+            .append(i % 5 == 0 ? " with {0} argument" : "")
+            .append("\",\"revision\":1}");
+        }
+        json.append("]}");
+        responses.put(prefix + "/r/" + baseName + "/translations/" + language,
+          json.toString().getBytes(StandardCharsets.UTF_8));
+      }
+    }
+
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", exchange -> respond(exchange, conditional));
+    server.start();
+  }
+
+  String baseUrl() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  private void respond(HttpExchange exchange, boolean conditional) throws IOException {
+    String path = exchange.getRequestURI().getPath();
+    byte[] body = responses.get(path);
+    if (body == null) {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+      return;
+    }
+
+    String eTag = "\"" + path.hashCode() + "\"";
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.getResponseHeaders().add("ETag", eTag);
+    if (conditional && eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+      exchange.sendResponseHeaders(304, -1);
+      exchange.close();
+      return;
+    }
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}
@@ -0,0 +1,24 @@
+package at.porscheinformatik.zanata;
+
+/**
+ * Exponential backoff shared by all retries of Zanata requests: the delay doubles with each failure, up to 10 minutes.
+ */
+final class Backoff {
+
+  // 10 minutes
+  static final long MAX_DELAY_MILLIS = 10 * 60 * 1000;
+
+  private static final int MAX_DOUBLINGS = 16;
+
+  private Backoff() {
+  }
+
+  /**
+   * @param initialMillis the delay after the first failure
+   * @param failures the number of failures so far, at least 1
+   * @return the delay before the next attempt
+   */
+  static long delay(long initialMillis, int failures) {
+    return Math.min(initialMillis << Math.min(Math.max(failures - 1, 0), MAX_DOUBLINGS), MAX_DELAY_MILLIS);
+  }
+}
@@ -0,0 +1,98 @@
+package at.porscheinformatik.zanata;
+
+/**
+ * Stops calling Zanata after a number of consecutive failures.
+ *
+ * <p>
+ * While the circuit is open, requests fail at once instead of waiting for a timeout. After the open time one trial
+ * request is let through (half open): if it succeeds the circuit closes, otherwise it opens again for twice as long
+ * (up to 10 minutes).
+ * </p>
+ */
+final class CircuitBreaker {
+
+  private volatile int failureThreshold;
+  private volatile long openMillis;
+
+  private int failures;
+  private int openCount;
+  private long openUntil;
+  // the thread that sends the trial request while half open
+  private Thread trialThread;
+
+  /**
+   * @param failureThreshold number of consecutive failures that open the circuit, 0 to never open it
+   * @param openMillis time the circuit stays open the first time
+   */
+  CircuitBreaker(int failureThreshold, long openMillis) {
+    this.failureThreshold = failureThreshold;
+    this.openMillis = openMillis;
+  }
+
+  void setFailureThreshold(int failureThreshold) {
+    this.failureThreshold = failureThreshold;
+  }
+
+  void setOpenMillis(long openMillis) {
+    this.openMillis = openMillis;
+  }
+
+  /**
+   * @return <code>true</code> if a request may be sent, <code>false</code> if it should fail at once
+   */
+  synchronized boolean allowRequest() {
+    if (openUntil == 0) {
+      return true;
+    }
+    if (trialThread != null || System.currentTimeMillis() < openUntil) {
+      return false;
+    }
+    trialThread = Thread.currentThread();
+    return true;
+  }
+
+  synchronized void recordSuccess() {
+    failures = 0;
+    openCount = 0;
+    openUntil = 0;
+    trialThread = null;
+  }
+
+  synchronized void recordFailure() {
+    failures++;
+    if (trialThread != null || (failureThreshold > 0 && failures >= failureThreshold)) {
+      openUntil = System.currentTimeMillis() + openMillis();
+      openCount++;
+      trialThread = null;
+    }
+  }
+
+  /**
+   * Ends the trial request of the current thread if neither a success nor a failure was recorded for it (like when it
+   * failed with an unexpected exception), so the next request can be the trial. Call this in a finally block after
+   * each request.
+   */
+  synchronized void releaseTrial() {
+    if (trialThread == Thread.currentThread()) {
+      trialThread = null;
+    }
+  }
+
+  /**
+   * @return <code>true</code> while requests are rejected
+   */
+  synchronized boolean isOpen() {
+    return openUntil != 0 && (trialThread != null || System.currentTimeMillis() < openUntil);
+  }
+
+  /**
+   * @return milliseconds until the next trial request is allowed, 0 if requests are allowed now
+   */
+  synchronized long remainingOpenMillis() {
+    return openUntil == 0 ? 0 : Math.max(openUntil - System.currentTimeMillis(), 0);
+  }
+
+  private long openMillis() {
+    return Backoff.delay(openMillis, openCount + 1);
+  }
+}
@@ -0,0 +1,203 @@
+package at.porscheinformatik.zanata;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * {@link ReloadNotifier} using a directory shared by all nodes (e.g. a network file system).
+ *
+ * <p>
+ * Every notification is written to a new file in the directory. Each node polls the directory and delivers the files
+ * it has not seen yet. Files are deleted after 10 minutes by whichever node finds them first.
+ * </p>
+ */
+public class FileReloadNotifier implements ReloadNotifier {
+
+  private static final Log LOGGER = LogFactory.getLog(FileReloadNotifier.class);
+
+  private static final String SUFFIX = ".zrld";
+  private static final String RELOAD = "reload";
+  private static final String CLEAR = "clear";
+  // 10 minutes
+  private static final long RETENTION_MILLIS = 10 * 60 * 1000;
+
+  private final Path directory;
+  private final String nodeId = UUID.randomUUID().toString();
+  private final Set<String> seenFiles = new HashSet<>();
+  private long pollMillis = 5 * 1000;
+  private ScheduledExecutorService executor;
+
+  /**
+   * @param directory the directory shared by all nodes, created if it does not exist
+   */
+  public FileReloadNotifier(File directory) {
+    this.directory = directory.toPath();
+  }
+
+  /**
+   * Sets the interval for checking the directory for new notifications.
+   * Default is: 5 seconds
+   *
+   * @param pollMillis the interval in milliseconds
+   */
+  public void setPollMillis(long pollMillis) {
+    this.pollMillis = pollMillis;
+  }
+
+  @Override
+  public void publishReload(Collection<String> documents) {
+    publish(RELOAD, documents);
+  }
+
+  @Override
+  public void publishClear() {
+    publish(CLEAR, Collections.emptyList());
+  }
+
+  /**
+   * Writes the type in the first line and each document in a line of its own.
+   */
+  private void publish(String type, Collection<String> documents) {
+    String fileName = System.currentTimeMillis() + "-" + nodeId + "-" + UUID.randomUUID() + SUFFIX;
+    try {
+      Files.createDirectories(directory);
+      Path tempFile = Files.createTempFile(directory, "notification", ".tmp");
+      try {
+        List<String> lines = new ArrayList<>(documents.size() + 1);
+        lines.add(type);
+        lines.addAll(documents);
+        Files.write(tempFile, lines, StandardCharsets.UTF_8);
+        Files.move(tempFile, directory.resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Could not publish " + type + " notification to " + directory, e);
+    }
+  }
+
+  @Override
+  public synchronized void start(Listener listener) {
+    if (executor != null) {
+      throw new IllegalStateException("Notifier has already been started");
+    }
+    // notifications written before the start are not delivered
+    synchronized (seenFiles) {
+      seenFiles.addAll(listFiles());
+    }
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("zanata-notifier-");
+    threadFactory.setDaemon(true);
+    executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    executor.scheduleWithFixedDelay(() -> poll(listener), pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /**
+   * Delivers all notifications of other nodes that have not been delivered yet.
+   *
+   * @param listener receives the notifications
+   */
+  void poll(Listener listener) {
+    List<String> files = listFiles();
+    List<String> newFiles = new ArrayList<>();
+    synchronized (seenFiles) {
+      seenFiles.retainAll(files);
+      for (String file : files) {
+        if (seenFiles.add(file)) {
+          newFiles.add(file);
+        }
+      }
+    }
+
+    long now = System.currentTimeMillis();
+    newFiles.sort(null);
+    for (String file : newFiles) {
+      if (!file.contains("-" + nodeId + "-")) {
+        deliver(directory.resolve(file), listener);
+      }
+    }
+    for (String file : files) {
+      if (now - timestamp(file) > RETENTION_MILLIS) {
+        try {
+          Files.deleteIfExists(directory.resolve(file));
+        } catch (IOException e) {
+          LOGGER.debug("Could not delete old notification " + file, e);
+        }
+      }
+    }
+  }
+
+  private void deliver(Path file, Listener listener) {
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      LOGGER.warn("Could not read notification " + file, e);
+      return;
+    }
+    try {
+      if (!lines.isEmpty() && CLEAR.equals(lines.get(0))) {
+        listener.cleared();
+      } else if (lines.size() > 1 && RELOAD.equals(lines.get(0))) {
+        List<String> documents = new ArrayList<>();
+        for (String document : lines.subList(1, lines.size())) {
+          if (!document.isEmpty()) {
+            documents.add(document);
+          }
+        }
+        listener.reloaded(documents);
+      }
+    } catch (RuntimeException e) {
+      LOGGER.warn("Could not process notification " + file, e);
+    }
+  }
+
+  private List<String> listFiles() {
+    List<String> files = new ArrayList<>();
+    if (!Files.isDirectory(directory)) {
+      return files;
+    }
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+      for (Path file : stream) {
+        files.add(file.getFileName().toString());
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Could not read notifications from " + directory, e);
+    }
+    return files;
+  }
+
+  private static long timestamp(String file) {
+    try {
+      return Long.parseLong(file.substring(0, file.indexOf('-')));
+    } catch (RuntimeException e) {
+      return 0L;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package at.porscheinformatik.zanata;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Creates a {@link HttpComponentsClientHttpRequestFactory} with a pool of keep-alive connections and gzip
+ * compression. Only used if Apache HttpClient is on the classpath.
+ */
+final class HttpComponentsRequestFactory {
+
+  private HttpComponentsRequestFactory() {
+  }
+
+  static boolean isAvailable() {
+    return ClassUtils.isPresent("org.apache.http.impl.client.HttpClientBuilder",
+      HttpComponentsRequestFactory.class.getClassLoader());
+  }
+
+  /**
+   * @param connectTimeout timeout for connecting and for getting a connection from the pool in milliseconds
+   * @param readTimeout socket timeout in milliseconds
+   * @param maxConnections maximum number of open connections
+   * @return the request factory, has to be destroyed when no longer needed
+   */
+  static HttpComponentsClientHttpRequestFactory create(int connectTimeout, int readTimeout, int maxConnections) {
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnections);
+
+    RequestConfig requestConfig = RequestConfig.custom()
+      .setConnectTimeout(connectTimeout)
+      .setConnectionRequestTimeout(connectTimeout)
+      .setSocketTimeout(readTimeout)
+      .build();
+
+    // content compression (Accept-Encoding: gzip, deflate) is enabled by default
+    CloseableHttpClient httpClient = HttpClientBuilder.create()
+      .useSystemProperties()
+      .setConnectionManager(connectionManager)
+      .setDefaultRequestConfig(requestConfig)
+      .build();
+
+    return new HttpComponentsClientHttpRequestFactory(httpClient);
+  }
+}
@@ -0,0 +1,70 @@
+package at.porscheinformatik.zanata;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Assigns a stable ordinal to every message code. The table is shared by all locales, so each code is stored only
+ * once and the texts of a locale can be kept in a plain array indexed by ordinal.
+ */
+final class KeyTable {
+
+  private final ConcurrentMap<String, Integer> ordinals = new ConcurrentHashMap<>();
+  private volatile String[] keys = new String[256];
+  private volatile int size;
+
+  /**
+   * @param key the message code
+   * @return the ordinal of the code or -1 if it is unknown
+   */
+  int ordinal(String key) {
+    if (key == null) {
+      return -1;
+    }
+    Integer ordinal = ordinals.get(key);
+    return ordinal != null ? ordinal : -1;
+  }
+
+  /**
+   * @param key the message code
+   * @return the ordinal of the code, a new one is assigned if it is unknown
+   */
+  int intern(String key) {
+    Integer ordinal = ordinals.get(key);
+    if (ordinal != null) {
+      return ordinal;
+    }
+    synchronized (this) {
+      ordinal = ordinals.get(key);
+      if (ordinal != null) {
+        return ordinal;
+      }
+      int next = size;
+      String[] current = keys;
+      if (next == current.length) {
+        current = Arrays.copyOf(current, next * 2);
+      }
+      current[next] = key;
+      keys = current;
+      size = next + 1;
+      ordinals.put(key, next);
+      return next;
+    }
+  }
+
+  /**
+   * @param ordinal an ordinal returned by {@link #intern(String)}
+   * @return the message code
+   */
+  String key(int ordinal) {
+    return keys[ordinal];
+  }
+
+  /**
+   * @return the number of known codes
+   */
+  int size() {
+    return size;
+  }
+}
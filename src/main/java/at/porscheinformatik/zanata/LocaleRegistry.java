@@ -0,0 +1,132 @@
+package at.porscheinformatik.zanata;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Caches the locale ids that exist in a Zanata project iteration.
+ *
+ * <p>
+ * Reads never block while a valid list is present. When the list expires, one caller refreshes it while all others
+ * keep using the previous list. A failed refresh keeps the previous list and is retried with exponential backoff.
+ * </p>
+ */
+final class LocaleRegistry {
+
+  private static final Log LOGGER = LogFactory.getLog(LocaleRegistry.class);
+
+  private final Supplier<Set<String>> loader;
+  private final AtomicReference<CompletableFuture<Entry>> pendingRefresh = new AtomicReference<>();
+  private volatile Entry current;
+  private volatile boolean loaded;
+  private volatile long cacheMillis = 60 * 60 * 1000;
+  private volatile long retryMillis = 5 * 1000;
+
+  /**
+   * @param loader loads the locale ids from Zanata, throws an exception if they could not be loaded
+   */
+  LocaleRegistry(Supplier<Set<String>> loader) {
+    this.loader = loader;
+  }
+
+  void setCacheMillis(long cacheMillis) {
+    this.cacheMillis = cacheMillis;
+  }
+
+  void setRetryMillis(long retryMillis) {
+    this.retryMillis = retryMillis;
+  }
+
+  /**
+   * @return the existing locale ids, empty if they never could be loaded
+   */
+  Set<String> localeIds() {
+    Entry entry = current;
+    if (entry != null && !entry.isExpired()) {
+      return entry.localeIds;
+    }
+
+    CompletableFuture<Entry> refresh = new CompletableFuture<>();
+    if (pendingRefresh.compareAndSet(null, refresh)) {
+      try {
+        entry = refresh(entry);
+        current = entry;
+        return entry.localeIds;
+      } finally {
+        refresh.complete(current);
+        pendingRefresh.set(null);
+      }
+    }
+
+    if (entry != null) {
+      // another thread is refreshing, use the stale list until it is done
+      return entry.localeIds;
+    }
+    CompletableFuture<Entry> otherRefresh = pendingRefresh.get();
+    Entry refreshed = otherRefresh != null ? otherRefresh.join() : current;
+    return refreshed != null ? refreshed.localeIds : Collections.emptySet();
+  }
+
+  /**
+   * @return the existing locale ids if they are loaded and not expired, otherwise <code>null</code> (never loads them)
+   */
+  Set<String> currentLocaleIds() {
+    Entry entry = current;
+    return entry != null && !entry.isExpired() ? entry.localeIds : null;
+  }
+
+  /**
+   * @return <code>true</code> if the locale ids were loaded successfully at least once, <code>false</code> while an
+   *         empty list only stands for a failed load
+   */
+  boolean isLoaded() {
+    return loaded;
+  }
+
+  /**
+   * Forces a refresh on the next access. The current list is still used if the refresh fails.
+   */
+  void invalidate() {
+    Entry entry = current;
+    if (entry != null) {
+      current = new Entry(entry.localeIds, 0L, entry.failures);
+    }
+  }
+
+  private Entry refresh(Entry previous) {
+    try {
+      Set<String> localeIds = loader.get();
+      long expires = cacheMillis < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + cacheMillis;
+      loaded = true;
+      return new Entry(Collections.unmodifiableSet(localeIds), expires, 0);
+    } catch (RuntimeException e) {
+      int failures = previous != null ? previous.failures + 1 : 1;
+      long backoff = Backoff.delay(retryMillis, failures);
+      LOGGER.warn("Could not load languages, retrying in " + backoff + " ms", e);
+      Set<String> localeIds = previous != null ? previous.localeIds : Collections.emptySet();
+      return new Entry(localeIds, System.currentTimeMillis() + backoff, failures);
+    }
+  }
+
+  private static final class Entry {
+    final Set<String> localeIds;
+    final long expires;
+    final int failures;
+
+    Entry(Set<String> localeIds, long expires, int failures) {
+      this.localeIds = localeIds;
+      this.expires = expires;
+      this.failures = failures;
+    }
+
+    boolean isExpired() {
+      return System.currentTimeMillis() >= expires;
+    }
+  }
+}
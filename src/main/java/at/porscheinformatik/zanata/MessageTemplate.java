@@ -0,0 +1,140 @@
+package at.porscheinformatik.zanata;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Precompiled form of a message pattern that only contains plain argument placeholders like <code>{0}</code>. Formats
+ * exactly like {@link java.text.MessageFormat} (including apostrophe quoting), but only appends the literal parts and
+ * the arguments, without locks and formatter objects.
+ *
+ * <p>
+ * Patterns with format types (like <code>{0,number}</code> or <code>{0,choice,...}</code>) cannot be compiled, and
+ * arguments that {@link java.text.MessageFormat} formats locale-dependent ({@link Number}, {@link Date}) are not
+ * formatted. In both cases {@link java.text.MessageFormat} has to be used.
+ * </p>
+ */
+final class MessageTemplate {
+
+  /**
+   * Marks patterns that cannot be compiled.
+   */
+  static final MessageTemplate COMPLEX = new MessageTemplate(new String[0], new int[0], 0);
+
+  private static final int MAX_ARGUMENT_DIGITS = 4;
+
+  // literals[i] comes before argument i, the last literal after the last argument
+  private final String[] literals;
+  private final int[] arguments;
+  private final int literalLength;
+
+  private MessageTemplate(String[] literals, int[] arguments, int literalLength) {
+    this.literals = literals;
+    this.arguments = arguments;
+    this.literalLength = literalLength;
+  }
+
+  /**
+   * @param pattern the {@link java.text.MessageFormat} pattern
+   * @return the template, <code>null</code> if the pattern is a plain text without placeholders and quotes, or
+   *         {@link #COMPLEX} if it cannot be compiled
+   */
+  static MessageTemplate compile(String pattern) {
+    if (pattern.indexOf('{') < 0 && pattern.indexOf('\'') < 0) {
+      return null;
+    }
+
+    List<String> literals = new ArrayList<>();
+    List<Integer> arguments = new ArrayList<>();
+    StringBuilder literal = new StringBuilder(pattern.length());
+    int literalLength = 0;
+    boolean inQuote = false;
+    for (int i = 0; i < pattern.length(); i++) {
+      char ch = pattern.charAt(i);
+      if (ch == '\'') {
+        // same rules as MessageFormat.applyPattern: '' is a quote, a single quote starts or ends a quoted part
+        if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+          literal.append(ch);
+          i++;
+        } else {
+          inQuote = !inQuote;
+        }
+      } else if (ch == '{' && !inQuote) {
+        int end = pattern.indexOf('}', i + 1);
+        if (end < 0 || end == i + 1 || end - i - 1 > MAX_ARGUMENT_DIGITS) {
+          return COMPLEX;
+        }
+        int argument = 0;
+        for (int j = i + 1; j < end; j++) {
+          char digit = pattern.charAt(j);
+          if (digit < '0' || digit > '9') {
+            return COMPLEX;
+          }
+          argument = argument * 10 + (digit - '0');
+        }
+        literals.add(literal.toString());
+        literalLength += literal.length();
+        literal.setLength(0);
+        arguments.add(argument);
+        i = end;
+      } else {
+        literal.append(ch);
+      }
+    }
+    literals.add(literal.toString());
+    literalLength += literal.length();
+
+    int[] argumentArray = new int[arguments.size()];
+    for (int i = 0; i < argumentArray.length; i++) {
+      argumentArray[i] = arguments.get(i);
+    }
+    return new MessageTemplate(literals.toArray(new String[0]), argumentArray, literalLength);
+  }
+
+  /**
+   * @param args the arguments, may be <code>null</code>
+   * @return the formatted message, <code>null</code> if {@link java.text.MessageFormat} has to be used
+   */
+  String format(Object[] args) {
+    if (this == COMPLEX) {
+      return null;
+    }
+    if (arguments.length == 0) {
+      return literals[0];
+    }
+
+    int length = literalLength;
+    for (int argument : arguments) {
+      Object arg = args != null && argument < args.length ? args[argument] : null;
+      if (arg instanceof Number || arg instanceof Date) {
+        return null;
+      }
+      length += arg instanceof String ? ((String) arg).length() : 8;
+    }
+
+    StringBuilder result = new StringBuilder(length);
+    for (int i = 0; i < arguments.length; i++) {
+      result.append(literals[i]);
+      int argument = arguments[i];
+      if (args == null || argument >= args.length) {
+        // like MessageFormat: keep the placeholder
+        result.append('{').append(argument).append('}');
+      } else {
+        result.append(argumentString(args[argument]));
+      }
+    }
+    return result.append(literals[arguments.length]).toString();
+  }
+
+  private static String argumentString(Object arg) {
+    if (arg == null) {
+      return "null";
+    }
+    if (arg instanceof String) {
+      return (String) arg;
+    }
+    String string = arg.toString();
+    return string != null ? string : "null";
+  }
+}
@@ -0,0 +1,68 @@
+package at.porscheinformatik.zanata;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * All messages of a locale serialized as JSON object (code to text, sorted by code), e.g. for sending them to a
+ * JavaScript frontend. Instances are immutable and cached until the translations of the locale are reloaded.
+ */
+public final class MessagesJson {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private final byte[] json;
+  private final String eTag;
+
+  private MessagesJson(byte[] json) {
+    this.json = json;
+    this.eTag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+  }
+
+  static MessagesJson of(Map<String, String> messages) {
+    try {
+      return new MessagesJson(OBJECT_MAPPER.writeValueAsBytes(new TreeMap<>(messages)));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @return a strong ETag for the JSON (quoted), changes only when the messages change
+   */
+  public String getETag() {
+    return eTag;
+  }
+
+  /**
+   * @return the length of the UTF-8 encoded JSON in bytes
+   */
+  public int getContentLength() {
+    return json.length;
+  }
+
+  /**
+   * Writes the JSON without copying it.
+   *
+   * @param out the stream to write to, e.g. the response body
+   * @throws IOException if writing fails
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    out.write(json);
+  }
+
+  /**
+   * @return a copy of the UTF-8 encoded JSON
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(json, json.length);
+  }
+}
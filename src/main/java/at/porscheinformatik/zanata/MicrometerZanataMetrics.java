@@ -0,0 +1,103 @@
+package at.porscheinformatik.zanata;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * {@link ZanataMetrics} publishing to a Micrometer {@link MeterRegistry}. Needs
+ * <code>io.micrometer:micrometer-core</code> on the classpath.
+ *
+ * <ul>
+ *   <li><code>zanata.lookups</code> (tags: locale, result=hit|miss) - message codes looked up in Zanata</li>
+ *   <li><code>zanata.lookups.parent</code> (tags: locale) - codes resolved by the parent message source</li>
+ *   <li><code>zanata.fetch</code> (tags: basename, language, outcome) - requests for translations</li>
+ *   <li><code>zanata.fetch.bytes</code> (tags: basename, language) - size of downloaded translations</li>
+ *   <li><code>zanata.locales.fetch</code> (tags: outcome) - requests for the list of locales</li>
+ *   <li><code>zanata.load</code> (tags: locale, outcome) - (re)loads of all translations of a locale</li>
+ *   <li><code>zanata.cache.entries</code> (tags: locale) - number of cached texts</li>
+ * </ul>
+ */
+public class MicrometerZanataMetrics implements ZanataMetrics {
+
+  private final MeterRegistry registry;
+  private final Map<Locale, Counter> hits = new ConcurrentHashMap<>();
+  private final Map<Locale, Counter> misses = new ConcurrentHashMap<>();
+  private final Map<Locale, Counter> parentFallbacks = new ConcurrentHashMap<>();
+  private final Map<Locale, AtomicInteger> cacheSizes = new ConcurrentHashMap<>();
+
+  /**
+   * @param registry the registry for all meters
+   */
+  public MicrometerZanataMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public void lookup(Locale locale, boolean hit) {
+    Map<Locale, Counter> counters = hit ? hits : misses;
+    counters.computeIfAbsent(locale, l -> Counter.builder("zanata.lookups")
+      .tag("locale", l.toString())
+      .tag("result", hit ? "hit" : "miss")
+      .register(registry))
+      .increment();
+  }
+
+  @Override
+  public void parentFallback(Locale locale) {
+    parentFallbacks.computeIfAbsent(locale, l -> Counter.builder("zanata.lookups.parent")
+      .tag("locale", l.toString())
+      .register(registry))
+      .increment();
+  }
+
+  @Override
+  public void fetch(String baseName, String language, String outcome, long durationNanos, long bytes) {
+    Timer.builder("zanata.fetch")
+      .tag("basename", baseName)
+      .tag("language", language)
+      .tag("outcome", outcome)
+      .register(registry)
+      .record(durationNanos, TimeUnit.NANOSECONDS);
+    if (bytes > 0) {
+      DistributionSummary.builder("zanata.fetch.bytes")
+        .baseUnit("bytes")
+        .tag("basename", baseName)
+        .tag("language", language)
+        .register(registry)
+        .record(bytes);
+    }
+  }
+
+  @Override
+  public void localesFetch(boolean success, long durationNanos) {
+    Timer.builder("zanata.locales.fetch")
+      .tag("outcome", success ? "ok" : "error")
+      .register(registry)
+      .record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void load(Locale locale, boolean success, long durationNanos) {
+    Timer.builder("zanata.load")
+      .tag("locale", locale.toString())
+      .tag("outcome", success ? "ok" : "error")
+      .register(registry)
+      .record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void cacheSize(Locale locale, int entries) {
+    cacheSizes.computeIfAbsent(locale, l -> registry.gauge("zanata.cache.entries",
+      Tags.of("locale", l.toString()), new AtomicInteger()))
+      .set(entries);
+  }
+}
@@ -0,0 +1,136 @@
+package at.porscheinformatik.zanata;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.NoSuchMessageException;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking access to the messages of a {@link ZanataMessageSource} for reactive applications (e.g. Spring
+ * WebFlux). Needs Reactor on the classpath.
+ *
+ * <p>
+ * Messages of loaded locales are resolved right away on the subscribing thread. If a locale (or a locale of a
+ * {@link ZanataMessageSource} used as parent) still has to be loaded from Zanata, the lookup runs on a separate
+ * {@link Scheduler} (by default {@link Schedulers#boundedElastic()}), so an
+ * event loop thread never waits for Zanata. Both APIs use the same cached translations.
+ * </p>
+ *
+ * <pre>
+ * ReactiveZanataMessageSource reactiveMessageSource = new ReactiveZanataMessageSource(zanataMessageSource);
+ * Mono&lt;String&gt; message = reactiveMessageSource.getMessage("title", null, locale);
+ * </pre>
+ */
+public class ReactiveZanataMessageSource {
+
+  private final ZanataMessageSource messageSource;
+  private Scheduler scheduler = Schedulers.boundedElastic();
+
+  /**
+   * @param messageSource the message source holding the translations
+   */
+  public ReactiveZanataMessageSource(ZanataMessageSource messageSource) {
+    this.messageSource = messageSource;
+  }
+
+  /**
+   * Sets the scheduler for loading locales from Zanata.
+   * Default is: {@link Schedulers#boundedElastic()}
+   *
+   * @param scheduler the scheduler, must allow blocking
+   */
+  public void setScheduler(Scheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * @param code the message code
+   * @param args arguments for the message or <code>null</code>
+   * @param locale the locale
+   * @return the message, fails with {@link NoSuchMessageException} if there is none
+   */
+  public Mono<String> getMessage(String code, Object[] args, Locale locale) {
+    return resolve(locale, () -> messageSource.getMessage(code, args, locale));
+  }
+
+  /**
+   * @param code the message code
+   * @param args arguments for the message or <code>null</code>
+   * @param defaultMessage the message to use if there is none for the code
+   * @param locale the locale
+   * @return the message, empty if there is none and the default message is <code>null</code>
+   */
+  public Mono<String> getMessage(String code, Object[] args, String defaultMessage, Locale locale) {
+    return resolve(locale, () -> messageSource.getMessage(code, args, defaultMessage, locale));
+  }
+
+  /**
+   * @param resolvable the codes, arguments and default message
+   * @param locale the locale
+   * @return the message, fails with {@link NoSuchMessageException} if there is none
+   */
+  public Mono<String> getMessage(MessageSourceResolvable resolvable, Locale locale) {
+    return resolve(locale, () -> messageSource.getMessage(resolvable, locale));
+  }
+
+  /**
+   * @param codes the message codes
+   * @param locale the locale
+   * @return the texts by message code, see {@link ZanataMessageSource#getMessages(Collection, Locale)}
+   */
+  public Mono<Map<String, String>> getMessages(Collection<String> codes, Locale locale) {
+    return resolve(locale, () -> messageSource.getMessages(codes, locale));
+  }
+
+  /**
+   * @param locale the locale
+   * @return all messages of the locale, see {@link ZanataMessageSource#getAllMessages(Locale)}
+   */
+  public Mono<Map<String, String>> getAllMessages(Locale locale) {
+    return resolve(locale, () -> messageSource.getAllMessages(locale));
+  }
+
+  /**
+   * @param locale the locale
+   * @return all messages of the locale as JSON, see {@link ZanataMessageSource#getAllMessagesJson(Locale)}
+   */
+  public Mono<MessagesJson> getAllMessagesJson(Locale locale) {
+    return resolve(locale, () -> messageSource.getAllMessagesJson(locale));
+  }
+
+  /**
+   * Loads a locale from Zanata if it is not loaded yet.
+   *
+   * @param locale the locale
+   * @return completes when the locale is loaded
+   */
+  public Mono<Void> load(Locale locale) {
+    return resolve(locale, () -> {
+      messageSource.load(locale);
+      return null;
+    }).then();
+  }
+
+  private <T> Mono<T> resolve(Locale locale, Supplier<T> resolver) {
+    // checked on subscription, the locale may have been loaded in the meantime
+    return Mono.defer(() -> {
+      if (messageSource.lookupTranslations(locale) != null) {
+        try {
+          return Mono.justOrEmpty(messageSource.resolveWithoutLoading(resolver));
+        } catch (ZanataMessageSource.NotLoadedException e) {
+          // evicted in the meantime or a parent needs a load
+        } catch (RuntimeException e) {
+          return Mono.error(e);
+        }
+      }
+      return Mono.fromSupplier(resolver).subscribeOn(scheduler);
+    });
+  }
+}
@@ -0,0 +1,58 @@
+package at.porscheinformatik.zanata;
+
+import java.util.Collection;
+
+/**
+ * Propagates reloads between the {@link ZanataMessageSource}s of several application nodes. When one node has reloaded
+ * translations, the other nodes pick them up from the shared snapshot directory (see
+ * {@link ZanataMessageSource#setSnapshotDirectory(java.io.File)}) instead of requesting them from Zanata themselves.
+ * Reloads are published per document (base name and Zanata locale id, like <code>messages/de</code>), so each node
+ * updates all of its locales that contain a reloaded document.
+ *
+ * <p>
+ * See {@link FileReloadNotifier} for an implementation based on a shared directory.
+ * </p>
+ */
+public interface ReloadNotifier {
+
+  /**
+   * Tells the other nodes that these documents have changed.
+   *
+   * @param documents the reloaded documents, each one as base name and Zanata locale id separated by a slash
+   */
+  void publishReload(Collection<String> documents);
+
+  /**
+   * Tells the other nodes that the cache has been cleared (see {@link ZanataMessageSource#clearCache()}).
+   */
+  void publishClear();
+
+  /**
+   * Starts receiving the notifications of other nodes. Notifications published by this notifier itself are not
+   * delivered to the listener.
+   *
+   * @param listener receives the notifications
+   */
+  void start(Listener listener);
+
+  /**
+   * Stops receiving notifications and releases all resources.
+   */
+  void stop();
+
+  /**
+   * Receives the notifications of other nodes.
+   */
+  interface Listener {
+
+    /**
+     * @param documents the documents another node has reloaded, see {@link ReloadNotifier#publishReload(Collection)}
+     */
+    void reloaded(Collection<String> documents);
+
+    /**
+     * Another node has cleared its cache.
+     */
+    void cleared();
+  }
+}
@@ -0,0 +1,148 @@
+package at.porscheinformatik.zanata;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import at.porscheinformatik.zanata.ZanataMessageSource.CachedResource;
+
+/**
+ * Stores loaded translations in a directory, one binary file per base name and Zanata locale.
+ *
+ * <p>
+ * File layout: magic number, format version, ETag, Last-Modified, number of entries and then the resId/content pairs.
+ * Strings are written as length-prefixed UTF-8. Files are replaced atomically, so a reader never sees a partially
+ * written file.
+ * </p>
+ */
+final class SnapshotStore {
+
+  private static final Log LOGGER = LogFactory.getLog(SnapshotStore.class);
+
+  private static final int MAGIC = 0x5A534E50; // "ZSNP"
+  private static final int VERSION = 1;
+  private static final String SUFFIX = ".zsnp";
+
+  private final Path directory;
+
+  /**
+   * @param directory the directory for the snapshot files, created if it does not exist
+   */
+  SnapshotStore(File directory) {
+    this.directory = directory.toPath();
+  }
+
+  /**
+   * @param baseName the base name
+   * @param language the Zanata locale id
+   * @param keyTable the table for the message codes
+   * @return the stored resource or <code>null</code> if there is none (or it cannot be read)
+   */
+  CachedResource read(String baseName, String language, KeyTable keyTable) {
+    Path file = file(baseName, language);
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    try (InputStream in = Files.newInputStream(file)) {
+      return read(in, keyTable);
+    } catch (IOException e) {
+      LOGGER.warn("Could not read translation snapshot " + file, e);
+      return null;
+    }
+  }
+
+  /**
+   * @param baseName the base name
+   * @param language the Zanata locale id
+   * @param resource the resource to store
+   */
+  void write(String baseName, String language, CachedResource resource) {
+    Path file = file(baseName, language);
+    try {
+      Files.createDirectories(directory);
+      Path tempFile = Files.createTempFile(directory, "snapshot", ".tmp");
+      try {
+        try (OutputStream out = Files.newOutputStream(tempFile)) {
+          write(resource, out);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Could not write translation snapshot " + file, e);
+    }
+  }
+
+  static CachedResource read(InputStream in, KeyTable keyTable) throws IOException {
+    DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+    if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+      throw new IOException("Unknown snapshot format");
+    }
+    String eTag = readString(data);
+    long lastModified = data.readLong();
+    int count = data.readInt();
+    TranslationEntries.Builder entries = new TranslationEntries.Builder(keyTable, count);
+    for (int i = 0; i < count; i++) {
+      entries.add(readString(data), readString(data));
+    }
+    return new CachedResource(entries.build(), eTag, lastModified);
+  }
+
+  static void write(CachedResource resource, OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    writeString(data, resource.eTag);
+    data.writeLong(resource.lastModified);
+    TranslationEntries entries = resource.entries;
+    data.writeInt(entries.size());
+    for (int i = 0; i < entries.size(); i++) {
+      writeString(data, entries.resId(i));
+      writeString(data, entries.content(i));
+    }
+    data.flush();
+  }
+
+  private static String readString(DataInputStream data) throws IOException {
+    int length = data.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    data.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeString(DataOutputStream data, String value) throws IOException {
+    if (value == null) {
+      data.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    data.writeInt(bytes.length);
+    data.write(bytes);
+  }
+
+  private Path file(String baseName, String language) {
+    try {
+      return directory.resolve(URLEncoder.encode(baseName, "UTF-8") + "@" + language + SUFFIX);
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package at.porscheinformatik.zanata;
+
+import java.util.Arrays;
+
+/**
+ * Immutable list of the accepted texts of one resource in one Zanata locale. Codes are stored as ordinals of a
+ * shared {@link KeyTable}, texts in a parallel array.
+ */
+final class TranslationEntries {
+
+  private final KeyTable keyTable;
+  private final int[] ordinals;
+  private final String[] contents;
+
+  private TranslationEntries(KeyTable keyTable, int[] ordinals, String[] contents) {
+    this.keyTable = keyTable;
+    this.ordinals = ordinals;
+    this.contents = contents;
+  }
+
+  int size() {
+    return ordinals.length;
+  }
+
+  KeyTable keyTable() {
+    return keyTable;
+  }
+
+  int ordinal(int index) {
+    return ordinals[index];
+  }
+
+  String resId(int index) {
+    return keyTable.key(ordinals[index]);
+  }
+
+  String content(int index) {
+    return contents[index];
+  }
+
+  /**
+   * Collects entries without creating an object per entry.
+   */
+  static final class Builder {
+    private final KeyTable keyTable;
+    private int[] ordinals;
+    private String[] contents;
+    private int size;
+
+    Builder(KeyTable keyTable) {
+      this(keyTable, 64);
+    }
+
+    Builder(KeyTable keyTable, int expectedSize) {
+      this.keyTable = keyTable;
+      ordinals = new int[Math.max(expectedSize, 1)];
+      contents = new String[ordinals.length];
+    }
+
+    Builder add(String resId, String content) {
+      if (size == ordinals.length) {
+        ordinals = Arrays.copyOf(ordinals, size * 2);
+        contents = Arrays.copyOf(contents, size * 2);
+      }
+      ordinals[size] = keyTable.intern(resId);
+      contents[size] = content;
+      size++;
+      return this;
+    }
+
+    TranslationEntries build() {
+      return new TranslationEntries(keyTable, Arrays.copyOf(ordinals, size), Arrays.copyOf(contents, size));
+    }
+  }
+}
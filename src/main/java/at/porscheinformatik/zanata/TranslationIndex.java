@@ -0,0 +1,240 @@
+package at.porscheinformatik.zanata;
+
+import java.text.MessageFormat;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable index of all translations for one locale. The texts of all base names and locale variants are merged
+ * once when loading into an array indexed by the ordinals of a shared {@link KeyTable}, so a lookup is a single hash
+ * probe and an array access. This also holds for codes without translation: unknown codes are not in the key table
+ * and codes of other locales have an empty slot, so no negative cache is needed.
+ */
+final class TranslationIndex {
+
+  // formats are cached for this many locales per index, others are parsed on each use
+  private static final int MAX_FORMAT_LOCALES = 16;
+
+  private final KeyTable keyTable;
+  private final String[] values;
+  // null for plain texts, see MessageTemplate.compile
+  private final MessageTemplate[] templates;
+  private final int size;
+  private final boolean complete;
+  // equivalent locales share an index, but format numbers and dates differently, keyed by formatLocale
+  private final Map<Locale, Map<String, MessageFormat>> messageFormats = new ConcurrentHashMap<>();
+  private volatile boolean accessed = true;
+
+  private TranslationIndex(KeyTable keyTable, String[] values, MessageTemplate[] templates, int size,
+    boolean complete) {
+    this.keyTable = keyTable;
+    this.values = values;
+    this.templates = templates;
+    this.size = size;
+    this.complete = complete;
+  }
+
+  /**
+   * @param keyTable the key table of the index
+   * @param resources the resources in lookup order (first one wins)
+   * @param complete <code>false</code> if some of the resources could not be loaded
+   * @return the merged index
+   */
+  static TranslationIndex of(KeyTable keyTable, List<TranslationEntries> resources, boolean complete) {
+    // entries loaded before the key table was replaced have to be added to the current one
+    int[][] ordinals = new int[resources.size()][];
+    for (int r = 0; r < resources.size(); r++) {
+      TranslationEntries resource = resources.get(r);
+      ordinals[r] = new int[resource.size()];
+      for (int i = 0; i < resource.size(); i++) {
+        ordinals[r][i] = resource.keyTable() == keyTable ? resource.ordinal(i) : keyTable.intern(resource.resId(i));
+      }
+    }
+
+    String[] values = new String[keyTable.size()];
+    MessageTemplate[] templates = new MessageTemplate[values.length];
+    int size = 0;
+    for (int r = 0; r < resources.size(); r++) {
+      TranslationEntries resource = resources.get(r);
+      for (int i = 0; i < resource.size(); i++) {
+        int ordinal = ordinals[r][i];
+        if (values[ordinal] == null) {
+          values[ordinal] = resource.content(i);
+          templates[ordinal] = MessageTemplate.compile(values[ordinal]);
+          size++;
+        }
+      }
+    }
+    return new TranslationIndex(keyTable, values, templates, size, complete);
+  }
+
+  /**
+   * @param keyTable the current key table
+   * @return an incomplete index without texts, for lookups that cannot wait for a locale to be loaded
+   */
+  static TranslationIndex empty(KeyTable keyTable) {
+    return new TranslationIndex(keyTable, new String[0], new MessageTemplate[0], 0, false);
+  }
+
+  /**
+   * @param code the message code
+   * @return the text or <code>null</code> if there is no translation for this code
+   */
+  String get(String code) {
+    int ordinal = keyTable.ordinal(code);
+    return ordinal >= 0 && ordinal < values.length ? values[ordinal] : null;
+  }
+
+  /**
+   * Formats the text of a code with the precompiled {@link MessageTemplate}, the result is the same as the one of
+   * {@link MessageFormat}.
+   *
+   * @param code the message code
+   * @param args the arguments, may be <code>null</code>
+   * @return the message, <code>null</code> if there is no translation for this code or it has to be formatted with
+   *         {@link #getMessageFormat(String, Locale, int)}
+   */
+  String format(String code, Object[] args) {
+    int ordinal = keyTable.ordinal(code);
+    if (ordinal < 0 || ordinal >= values.length || values[ordinal] == null) {
+      return null;
+    }
+    MessageTemplate template = templates[ordinal];
+    return template != null ? template.format(args) : values[ordinal];
+  }
+
+  /**
+   * Returns the parsed {@link MessageFormat} for a code. Formats are cached per locale (for up to 16 locales) with this
+   * index, so they are dropped together with it on reload. The returned instance is shared, callers have to
+   * synchronize on it while formatting (as {@link org.springframework.context.support.AbstractMessageSource} does).
+   *
+   * @param code the message code
+   * @param locale the locale for formatting arguments
+   * @param maxCached maximum number of formats cached in this index per locale
+   * @return the format or <code>null</code> if there is no translation for this code
+   */
+  MessageFormat getMessageFormat(String code, Locale locale, int maxCached) {
+    // look up the text first, so a code without translation costs no more than in get(String)
+    String content = get(code);
+    if (content == null) {
+      return null;
+    }
+    Locale formatLocale = formatLocale(locale);
+    Map<String, MessageFormat> localeFormats = messageFormats.get(formatLocale);
+    if (localeFormats == null) {
+      if (messageFormats.size() >= MAX_FORMAT_LOCALES) {
+        return new MessageFormat(content, formatLocale);
+      }
+      localeFormats = messageFormats.computeIfAbsent(formatLocale, key -> new ConcurrentHashMap<>());
+    }
+    MessageFormat messageFormat = localeFormats.get(code);
+    if (messageFormat != null) {
+      return messageFormat;
+    }
+    messageFormat = new MessageFormat(content, formatLocale);
+    if (localeFormats.size() < maxCached) {
+      MessageFormat existing = localeFormats.putIfAbsent(code, messageFormat);
+      if (existing != null) {
+        return existing;
+      }
+    }
+    return messageFormat;
+  }
+
+  /**
+   * @return the locale without extensions that do not change formatting (like private use ones), so requested locales
+   *         that only differ in those share their formats
+   */
+  private static Locale formatLocale(Locale locale) {
+    return locale.hasExtensions() && locale.getUnicodeLocaleKeys().isEmpty() ? locale.stripExtensions() : locale;
+  }
+
+  /**
+   * Compares this index with the one it replaces. Indexes with a different key table (after
+   * {@link ZanataMessageSource#clearCache()}) cannot be compared, then <code>null</code> is returned.
+   *
+   * @param previous the previous index of the same locale
+   * @return the codes whose text was added, changed or removed, <code>null</code> if unknown
+   */
+  Set<String> changedCodes(TranslationIndex previous) {
+    if (previous.keyTable != keyTable) {
+      return null;
+    }
+    Set<String> changedCodes = new HashSet<>();
+    int length = Math.max(values.length, previous.values.length);
+    for (int ordinal = 0; ordinal < length; ordinal++) {
+      String value = ordinal < values.length ? values[ordinal] : null;
+      String previousValue = ordinal < previous.values.length ? previous.values[ordinal] : null;
+      if (!Objects.equals(value, previousValue)) {
+        changedCodes.add(keyTable.key(ordinal));
+      }
+    }
+    return changedCodes;
+  }
+
+  /**
+   * Takes over the parsed formats of the previous index for all codes whose text did not change, so a reload only has
+   * to parse the changed texts again.
+   *
+   * @param previous the previous index of the same locale
+   * @param changedCodes the result of {@link #changedCodes(TranslationIndex)}
+   */
+  void reuseMessageFormats(TranslationIndex previous, Set<String> changedCodes) {
+    previous.messageFormats.forEach((locale, previousFormats) -> {
+      Map<String, MessageFormat> localeFormats = messageFormats.computeIfAbsent(locale, key -> new ConcurrentHashMap<>());
+      previousFormats.forEach((code, messageFormat) -> {
+        if (!changedCodes.contains(code)) {
+          localeFormats.putIfAbsent(code, messageFormat);
+        }
+      });
+    });
+  }
+
+  /**
+   * @param action called with code and text of every translation of this index
+   */
+  void forEach(BiConsumer<String, String> action) {
+    for (int ordinal = 0; ordinal < values.length; ordinal++) {
+      if (values[ordinal] != null) {
+        action.accept(keyTable.key(ordinal), values[ordinal]);
+      }
+    }
+  }
+
+  /**
+   * @return <code>false</code> if some resources of this locale could not be loaded from Zanata
+   */
+  boolean isComplete() {
+    return complete;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Marks this index as used. Only writes if the flag is not set yet, so concurrent lookups do not contend.
+   */
+  void markAccessed() {
+    if (!accessed) {
+      accessed = true;
+    }
+  }
+
+  /**
+   * @return <code>true</code> if this index has been used since the last call
+   */
+  boolean resetAccessed() {
+    boolean wasAccessed = accessed;
+    if (wasAccessed) {
+      accessed = false;
+    }
+    return wasAccessed;
+  }
+}
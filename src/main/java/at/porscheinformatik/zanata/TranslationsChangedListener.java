@@ -0,0 +1,18 @@
+package at.porscheinformatik.zanata;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Notified by {@link ZanataMessageSource} when a reload changed the texts of a locale, e.g. for invalidating caches of
+ * rendered templates. Called on the thread that reloaded the locale, after the new texts are in use.
+ */
+@FunctionalInterface
+public interface TranslationsChangedListener {
+
+  /**
+   * @param locale the reloaded locale
+   * @param codes the codes whose text was added, changed or removed
+   */
+  void translationsChanged(Locale locale, Set<String> codes);
+}
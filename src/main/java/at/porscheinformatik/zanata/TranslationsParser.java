@@ -0,0 +1,87 @@
+package at.porscheinformatik.zanata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import at.porscheinformatik.zanata.ZanataMessageSource.ContentState;
+
+/**
+ * Reads the JSON of a Zanata translations resource (see {@link ZanataMessageSource.TranslationsResource}) as a
+ * stream. Only the resId and content of text flow targets in an accepted state are kept, no object is created for
+ * the other properties or for skipped targets.
+ */
+final class TranslationsParser {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private TranslationsParser() {
+  }
+
+  /**
+   * @param in the JSON response body
+   * @param acceptStates the states of text flow targets to keep
+   * @param keyTable the table for the message codes
+   * @return the accepted entries
+   * @throws IOException if the JSON cannot be read
+   */
+  static TranslationEntries parse(InputStream in, Collection<ContentState> acceptStates, KeyTable keyTable)
+    throws IOException {
+
+    TranslationEntries.Builder entries = new TranslationEntries.Builder(keyTable);
+    try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return entries.build();
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if ("textFlowTargets".equals(field) && value == JsonToken.START_ARRAY) {
+          parseTextFlowTargets(parser, acceptStates, entries);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    return entries.build();
+  }
+
+  private static void parseTextFlowTargets(JsonParser parser, Collection<ContentState> acceptStates,
+    TranslationEntries.Builder entries) throws IOException {
+
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      String resId = null;
+      String content = null;
+      ContentState state = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if (value == JsonToken.VALUE_STRING && "resId".equals(field)) {
+          resId = parser.getText();
+        } else if (value == JsonToken.VALUE_STRING && "content".equals(field)) {
+          content = parser.getText();
+        } else if (value == JsonToken.VALUE_STRING && "state".equals(field)) {
+          state = contentState(parser.getText());
+        } else {
+          parser.skipChildren();
+        }
+      }
+      if (resId != null && content != null && acceptStates.contains(state)) {
+        entries.add(resId, content);
+      }
+    }
+  }
+
+  private static ContentState contentState(String state) {
+    for (ContentState contentState : ContentState.values()) {
+      if (contentState.name().equals(state)) {
+        return contentState;
+      }
+    }
+    return null;
+  }
+}
@@ -2,28 +2,70 @@ package at.porscheinformatik.zanata;
 
 import static java.util.Collections.singletonList;
 
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.text.MessageFormat;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.context.MessageSource;
 import org.springframework.context.support.AbstractMessageSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.scheduling.support.PeriodicTrigger;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -36,21 +78,63 @@ import org.springframework.web.client.RestTemplate;
  * instead.
  * </p>
  */
-public class ZanataMessageSource extends AbstractMessageSource implements AllPropertiesSource {
+public class ZanataMessageSource extends AbstractMessageSource
+  implements AllPropertiesSource, InitializingBean, SmartInitializingSingleton, DisposableBean {
 
   // 30 seconds
   private static final int TIMEOUT = 30 * 1000;
+  private static final int PRELOAD_THREADS = 4;
+  private static final int MAX_LOCALE_ALIASES = 1000;
+  // set while resolveWithoutLoading runs, shared with ZanataMessageSources used as parent
+  private static final ThreadLocal<Boolean> WITHOUT_LOADING = new ThreadLocal<>();
 
   private RestTemplate restTemplate;
+  private ZanataAuthenticationInterceptor authInterceptor;
+  private DisposableBean ownRequestFactory;
+  private int connectTimeout = TIMEOUT;
+  private int readTimeout = TIMEOUT;
+  private long reloadTimeout;
+  private long maxLoadWaitMillis;
+  private ExecutorService loadExecutor;
+  private int maxConnections = 20;
   private String zanataBaseUrl;
   private String project;
   private String iteration = "master";
   private List<ContentState> acceptStates = Arrays.asList(ContentState.Translated, ContentState.Approved);
+  private int messageFormatCacheSize = 1000;
+  private Executor fetchExecutor;
+  private long reloadIntervalMillis;
+  private String reloadCron;
+  private TaskScheduler taskScheduler;
+  private ThreadPoolTaskScheduler ownTaskScheduler;
+  private ScheduledFuture<?> scheduledReload;
+  private volatile Instant lastReloadTime;
+  private final AtomicLong reloadFailureCount = new AtomicLong();
+  private SnapshotStore snapshotStore;
+  private ZanataMetrics metrics = ZanataMetrics.NONE;
+  private ReloadNotifier reloadNotifier;
+  private final Set<Locale> preloadLocales = new LinkedHashSet<>();
+  private boolean preloadAllLocales;
+  private boolean waitForPreload;
 
-  private Set<String> existingLocales;
-  private final Object existingLocalesLock = new Object();
+  private final LocaleRegistry existingLocales = new LocaleRegistry(this::loadLocales);
   private final Set<String> basenameSet = new LinkedHashSet<>(singletonList("messages"));
-  private final Map<Locale, TranslationsResource[]> translationsCache = new ConcurrentHashMap<>();
+  private final Map<Locale, TranslationIndex> translationsCache = new ConcurrentHashMap<>();
+  private final Map<Locale, LocaleAlias> localeAliases = new ConcurrentHashMap<>();
+  private int maxCachedLocales;
+  private long localeIdleMillis;
+  private ScheduledFuture<?> scheduledEviction;
+  private final ConcurrentMap<Locale, CompletableFuture<TranslationIndex>> pendingLoads = new ConcurrentHashMap<>();
+  private final Map<String, CachedResource> resourceCache = new ConcurrentHashMap<>();
+  private volatile KeyTable keyTable = new KeyTable();
+  private final Map<Locale, CachedMessages> allMessagesCache = new ConcurrentHashMap<>();
+  private final AtomicLong notModifiedCount = new AtomicLong();
+  private final AtomicLong fullDownloadCount = new AtomicLong();
+  private final CircuitBreaker circuitBreaker = new CircuitBreaker(5, 5 * 1000);
+  private long failureRetryMillis = 5 * 1000;
+  private final ConcurrentMap<Locale, Integer> retryAttempts = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Locale, ScheduledFuture<?>> scheduledRetries = new ConcurrentHashMap<>();
+  private final List<TranslationsChangedListener> changedListeners = new CopyOnWriteArrayList<>();
 
   /**
    * @return the Zanata URL
@@ -126,192 +210,1532 @@ public class ZanataMessageSource extends AbstractMessageSource implements AllPro
    *
    * @param restTemplate the {@link RestTemplate}
    */
-  public void setRestTemplate(RestTemplate restTemplate) {
-    if (this.restTemplate != null) {
+  public synchronized void setRestTemplate(RestTemplate restTemplate) {
+    if (this.restTemplate != null || authInterceptor != null) {
       throw new IllegalStateException("Rest template already set (maybe throgh useAuthentcation(.");
     }
     this.restTemplate = restTemplate;
   }
 
+  /**
+   * Sets the timeout for connecting to Zanata. Only used for the default {@link RestTemplate}.
+   * Default is: 30 seconds
+   *
+   * @param connectTimeout the timeout in milliseconds
+   */
+  public void setConnectTimeout(int connectTimeout) {
+    this.connectTimeout = connectTimeout;
+  }
+
+  /**
+   * Sets the timeout for reading from a connection to Zanata. Only used for the default {@link RestTemplate}.
+   * Default is: 30 seconds
+   *
+   * @param readTimeout the timeout in milliseconds
+   */
+  public void setReadTimeout(int readTimeout) {
+    this.readTimeout = readTimeout;
+  }
+
+  /**
+   * Sets the maximum time for loading all base names and locale variants of a locale. Resources that are not loaded
+   * in time are skipped, so the load counts as failed.
+   *
+   * @param reloadTimeout the timeout in milliseconds, 0 for no timeout (default)
+   */
+  public void setReloadTimeout(long reloadTimeout) {
+    this.reloadTimeout = reloadTimeout;
+  }
+
+  /**
+   * Sets the maximum time a lookup waits for a locale that is not loaded yet. If loading takes longer (like when Zanata
+   * does not answer), the lookup is answered by the parent message source (or the default message) and the locale
+   * is loaded in the background.
+   *
+   * @param maxLoadWaitMillis the time in milliseconds, 0 to wait until the locale is loaded (default)
+   */
+  public void setMaxLoadWaitMillis(long maxLoadWaitMillis) {
+    this.maxLoadWaitMillis = maxLoadWaitMillis;
+  }
+
+  /**
+   * Sets the maximum number of pooled connections to Zanata. Only used for the default {@link RestTemplate} with
+   * Apache HttpClient on the classpath.
+   * Default is: 20
+   *
+   * @param maxConnections the maximum number of connections
+   */
+  public void setMaxConnections(int maxConnections) {
+    this.maxConnections = maxConnections;
+  }
+
   /**
    * Sets {@link ZanataAuthenticationInterceptor} for calling the REST API. <b>Be aware</b>: this
-   * replaces all interceptors in the {@link RestTemplate}.
+   * replaces all interceptors in the {@link RestTemplate}. Without a {@link #setRestTemplate(RestTemplate) RestTemplate}
+   * the default one is still created on first use, so the timeouts can be set afterwards.
    *
    * @param authUser Zanata API user
    * @param authToken Zanata API token
    */
-  public void useAuthentcation(String authUser, String authToken) {
-    getRestTemplate().setInterceptors(singletonList(new ZanataAuthenticationInterceptor(authUser, authToken)));
+  public synchronized void useAuthentcation(String authUser, String authToken) {
+    authInterceptor = new ZanataAuthenticationInterceptor(authUser, authToken);
+    if (restTemplate != null) {
+      restTemplate.setInterceptors(singletonList(authInterceptor));
+    }
+  }
+
+  /**
+   * Sets which states Zanata will accept as Translation.
+   * Default is: Translated and Approved
+   *
+   * @param acceptStates the accepted states
+   */
+  public void setAcceptStates(ContentState... acceptStates)
+  {
+    this.acceptStates = Arrays.asList(acceptStates);
+  }
+
+  /**
+   * Sets how many parsed {@link MessageFormat}s are cached per locale. The cache is dropped whenever the locale is
+   * reloaded or the cache is cleared.
+   * Default is: 1000
+   *
+   * @param messageFormatCacheSize maximum number of cached formats per locale, 0 disables the cache
+   */
+  public void setMessageFormatCacheSize(int messageFormatCacheSize) {
+    this.messageFormatCacheSize = messageFormatCacheSize;
+  }
+
+  /**
+   * Sets an {@link Executor} for loading the translations of a locale. If set, all base names and locale variants of
+   * a locale are fetched concurrently; otherwise they are fetched one after another on the calling thread.
+   *
+   * @param fetchExecutor the executor for REST calls to Zanata, <code>null</code> for sequential loading
+   */
+  public void setFetchExecutor(Executor fetchExecutor) {
+    this.fetchExecutor = fetchExecutor;
+  }
+
+  /**
+   * Sets how long the list of locales existing in Zanata is cached. When it expires, it is refreshed by one thread
+   * while all others go on using the old list.
+   * Default is: 1 hour
+   *
+   * @param localesCacheMillis cache time in milliseconds, -1 to cache until {@link #clearCache()}
+   */
+  public void setLocalesCacheMillis(long localesCacheMillis) {
+    existingLocales.setCacheMillis(localesCacheMillis);
+  }
+
+  /**
+   * Sets the time to wait before retrying to load the list of locales after an error. The time doubles with every
+   * further error (up to 10 minutes). The last successfully loaded list is used in the meantime.
+   * Default is: 5 seconds
+   *
+   * @param localesRetryMillis initial retry time in milliseconds
+   */
+  public void setLocalesRetryMillis(long localesRetryMillis) {
+    existingLocales.setRetryMillis(localesRetryMillis);
+  }
+
+  /**
+   * Sets the number of consecutive failed requests after which Zanata is not called anymore for a while. Until then
+   * all loads fail at once (without waiting for a timeout) and the last loaded translations are used.
+   * Default is: 5
+   *
+   * @param circuitBreakerThreshold number of failures, 0 to always call Zanata
+   */
+  public void setCircuitBreakerThreshold(int circuitBreakerThreshold) {
+    circuitBreaker.setFailureThreshold(circuitBreakerThreshold);
+  }
+
+  /**
+   * Sets the time Zanata is not called after {@link #setCircuitBreakerThreshold(int)} failures. It is doubled each
+   * time the first request afterwards fails too (up to 10 minutes).
+   * Default is: 5 seconds
+   *
+   * @param circuitBreakerOpenMillis the time in milliseconds
+   */
+  public void setCircuitBreakerOpenMillis(long circuitBreakerOpenMillis) {
+    circuitBreaker.setOpenMillis(circuitBreakerOpenMillis);
+  }
+
+  /**
+   * Sets the time after which a locale that could not be loaded completely is loaded again in the background. The
+   * time is doubled for each further failure (up to 10 minutes).
+   * Default is: 5 seconds
+   *
+   * @param failureRetryMillis the time in milliseconds, -1 to not retry
+   */
+  public void setFailureRetryMillis(long failureRetryMillis) {
+    this.failureRetryMillis = failureRetryMillis;
+  }
+
+  /**
+   * Sets an interval for reloading all loaded locales in the background (see {@link #reloadAll()}).
+   *
+   * @param reloadIntervalMillis time between two reloads in milliseconds, 0 disables the scheduled reload
+   */
+  public void setReloadIntervalMillis(long reloadIntervalMillis) {
+    this.reloadIntervalMillis = reloadIntervalMillis;
+  }
+
+  /**
+   * Sets a cron expression for reloading all loaded locales in the background (see {@link #reloadAll()}). Takes
+   * precedence over {@link #setReloadIntervalMillis(long)}.
+   *
+   * @param reloadCron the cron expression, e.g. "0 0 * * * *" for every hour
+   */
+  public void setReloadCron(String reloadCron) {
+    this.reloadCron = reloadCron;
+  }
+
+  /**
+   * Sets the {@link TaskScheduler} for scheduled reloads. If not set, a single daemon thread is started when a
+   * reload interval or cron expression is configured.
+   *
+   * @param taskScheduler the scheduler
+   */
+  public void setTaskScheduler(TaskScheduler taskScheduler) {
+    this.taskScheduler = taskScheduler;
+  }
+
+  /**
+   * Sets a directory for storing all loaded translations. When a locale is used for the first time (e.g. after a
+   * restart), the stored translations are served right away and reloaded from Zanata in the background. Use a
+   * separate directory for each {@link ZanataMessageSource}, only the nodes of a cluster share the same directory (see
+   * {@link #setReloadNotifier(ReloadNotifier)}).
+   *
+   * @param snapshotDirectory the directory, <code>null</code> to disable storing translations
+   */
+  public void setSnapshotDirectory(File snapshotDirectory) {
+    this.snapshotStore = snapshotDirectory != null ? new SnapshotStore(snapshotDirectory) : null;
+  }
+
+  /**
+   * Sets the maximum number of locales whose translations are kept. Requested locales are mapped to the most specific
+   * existing Zanata locale first (so "de_AT_x" uses the translations of "de_AT" or "de", and locales that do not exist
+   * in Zanata share one empty entry). If more locales are loaded, the ones not used recently are removed. The results
+   * of {@link #getAllMessages(Locale)}, cached per requested locale, are limited to the same number.
+   * Default is: 0 (no limit)
+   *
+   * @param maxCachedLocales the maximum number of locales, 0 for no limit
+   */
+  public void setMaxCachedLocales(int maxCachedLocales) {
+    this.maxCachedLocales = maxCachedLocales;
+  }
+
+  /**
+   * Sets the time after which the translations of a locale that has not been used are removed (like the cached results
+   * of {@link #getAllMessages(Locale)}). Locales are checked in this interval, so a locale is removed after it has not
+   * been used for one to two intervals.
+   * Default is: 0 (keep all locales)
+   *
+   * @param localeIdleMillis the time in milliseconds, 0 to keep all locales
+   */
+  public void setLocaleIdleMillis(long localeIdleMillis) {
+    this.localeIdleMillis = localeIdleMillis;
+  }
+
+  /**
+   * Sets a notifier for propagating reloads to the other nodes of a cluster. After {@link #reload(Locale...)} (and
+   * scheduled reloads) the locales with changed texts are published, and the other nodes read them from the shared
+   * snapshot directory instead of calling Zanata. {@link #clearCache()} is propagated too. So usually only one node
+   * needs a scheduled reload.
+   *
+   * @param reloadNotifier the notifier, started with {@link #afterPropertiesSet()} and stopped with {@link #destroy()}
+   */
+  public void setReloadNotifier(ReloadNotifier reloadNotifier) {
+    this.reloadNotifier = reloadNotifier;
+  }
+
+  /**
+   * Sets locales whose translations are loaded when the application context has been started, so the first requests
+   * do not have to wait for Zanata.
+   *
+   * @param preloadLocales the locales to load on startup
+   */
+  public void setPreloadLocales(Locale... preloadLocales) {
+    this.preloadLocales.clear();
+    this.preloadLocales.addAll(Arrays.asList(preloadLocales));
+  }
+
+  /**
+   * Sets whether all locales that exist in the Zanata project are loaded when the application context has been
+   * started.
+   *
+   * @param preloadAllLocales <code>true</code> to load all locales of the project on startup
+   */
+  public void setPreloadAllLocales(boolean preloadAllLocales) {
+    this.preloadAllLocales = preloadAllLocales;
+  }
+
+  /**
+   * Sets whether the startup of the application context waits until all preload locales are loaded. Otherwise they
+   * are loaded in the background.
+   *
+   * @param waitForPreload <code>true</code> to finish the startup only after loading
+   */
+  public void setWaitForPreload(boolean waitForPreload) {
+    this.waitForPreload = waitForPreload;
+  }
+
+  /**
+   * Sets the receiver for measurements of lookups, requests and reloads, e.g. a {@link MicrometerZanataMetrics}.
+   *
+   * @param metrics the metrics, <code>null</code> to disable them
+   */
+  public void setMetrics(ZanataMetrics metrics) {
+    this.metrics = metrics != null ? metrics : ZanataMetrics.NONE;
+  }
+
+  /**
+   * Clears the cache for all locales and message bundles.
+   */
+  public void clearCache() {
+    clearLocalCache();
+    if (reloadNotifier != null) {
+      reloadNotifier.publishClear();
+    }
+  }
+
+  private void clearLocalCache() {
+    logger.info("Going to clear cache...");
+    existingLocales.invalidate();
+    translationsCache.clear();
+    localeAliases.clear();
+    resourceCache.clear();
+    allMessagesCache.clear();
+    keyTable = new KeyTable();
+  }
+
+  /**
+   * Reloads the translations for the given locales from zanata. Only if the translations from zanata could be loaded,
+   * the translation cache will be updated
+   * @param locales the locales that should be reloaded
+   */
+  public void reload(Locale ... locales) {
+    reloadAndPublish(locales);
+  }
+
+  /**
+   * Reloads the translations for all locales that have been loaded so far. Other than {@link #clearCache()} the old
+   * translations are used until the new ones are loaded completely.
+   */
+  public void reloadAll() {
+    boolean complete = false;
+    try {
+      complete = reloadAndPublish(translationsCache.keySet().toArray(new Locale[0]));
+    } finally {
+      if (complete) {
+        lastReloadTime = Instant.now();
+      } else {
+        reloadFailureCount.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * @return <code>true</code> if all locales could be reloaded
+   */
+  private boolean reloadAndPublish(Locale... locales) {
+    logger.info("Going to reload the translations ...");
+
+    if (locales == null || locales.length == 0) {
+      return true;
+    }
+    logger.info(String.format("Reload translations for locales %s", Arrays.toString(locales)));
+    Set<Locale> canonicalLocales = new LinkedHashSet<>();
+    for (Locale locale : locales) {
+      canonicalLocales.add(translationsCache.containsKey(locale) ? locale : canonicalLocale(locale));
+    }
+    ReloadResult result = reloadLocales(canonicalLocales);
+    if (reloadNotifier != null && !result.changedDocuments.isEmpty()) {
+      reloadNotifier.publishReload(result.changedDocuments);
+    }
+    return result.complete;
+  }
+
+  /**
+   * @return the time the last {@link #reloadAll()} (or scheduled reload) that reloaded all locales finished,
+   *         <code>null</code> if there was none
+   */
+  public Instant getLastReloadTime() {
+    return lastReloadTime;
+  }
+
+  /**
+   * @return number of {@link #reloadAll()} runs (including scheduled reloads) in which at least one locale could not be
+   *         reloaded
+   */
+  public long getReloadFailureCount() {
+    return reloadFailureCount.get();
+  }
+
+  /**
+   * @return number of translation requests Zanata answered with 304 Not Modified
+   */
+  public long getNotModifiedCount() {
+    return notModifiedCount.get();
+  }
+
+  /**
+   * @return number of translation requests that downloaded the complete translations
+   */
+  public long getFullDownloadCount() {
+    return fullDownloadCount.get();
+  }
+
+  /**
+   * Adds a listener that is notified with the changed codes whenever a reload changes the texts of a locale.
+   *
+   * @param listener the listener
+   */
+  public void addTranslationsChangedListener(TranslationsChangedListener listener) {
+    changedListeners.add(listener);
+  }
+
+  /**
+   * @param listener the listener to remove
+   */
+  public void removeTranslationsChangedListener(TranslationsChangedListener listener) {
+    changedListeners.remove(listener);
+  }
+
+  /**
+   * Tells whether messages of a locale can be resolved without calling Zanata (lookups in the parent message source
+   * are not considered).
+   *
+   * @param locale the locale
+   * @return <code>true</code> if the translations of the locale are loaded
+   */
+  public boolean isLoaded(Locale locale) {
+    return lookupTranslations(locale) != null;
+  }
+
+  /**
+   * Returns the cached translations of a locale. Never loads anything, not even the list of Zanata locales.
+   *
+   * @param locale the locale
+   * @return the translations, <code>null</code> if they are not loaded
+   */
+  TranslationIndex lookupTranslations(Locale locale) {
+    TranslationIndex translations = translationsCache.get(locale);
+    if (translations != null) {
+      return translations;
+    }
+    LocaleAlias alias = localeAliases.get(locale);
+    Set<String> localeIds = existingLocales.currentLocaleIds();
+    return alias != null && alias.localeIds == localeIds ? translationsCache.get(alias.canonicalLocale) : null;
+  }
+
+  /**
+   * Runs a lookup that only uses translations that are already loaded: all translations (also those of a
+   * {@link ZanataMessageSource} used as parent) are looked up with {@link #lookupTranslations(Locale)}, nothing is
+   * loaded from Zanata.
+   *
+   * @param resolver the lookup
+   * @return the result of the lookup
+   * @throws NotLoadedException if the lookup needs translations that are not loaded (or have just been evicted)
+   */
+  <T> T resolveWithoutLoading(Supplier<T> resolver) {
+    if (WITHOUT_LOADING.get() != null) {
+      return resolver.get();
+    }
+    WITHOUT_LOADING.set(Boolean.TRUE);
+    try {
+      return resolver.get();
+    } finally {
+      WITHOUT_LOADING.remove();
+    }
+  }
+
+  /**
+   * Loads the translations of a locale if they are not loaded yet.
+   *
+   * @param locale the locale
+   */
+  void load(Locale locale) {
+    loadTranslations(locale, false);
+  }
+
+  /**
+   * @return <code>true</code> while Zanata is not called because of too many failed requests
+   */
+  public boolean isCircuitOpen() {
+    return circuitBreaker.isOpen();
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    if (reloadNotifier != null) {
+      reloadNotifier.start(new ReloadNotifier.Listener() {
+        @Override
+        public void reloaded(Collection<String> documents) {
+          reloadDocuments(documents);
+        }
+
+        @Override
+        public void cleared() {
+          clearLocalCache();
+        }
+      });
+    }
+
+    if (localeIdleMillis > 0) {
+      scheduledEviction = getTaskScheduler().scheduleAtFixedRate(this::evictIdleLocales,
+        new Date(System.currentTimeMillis() + localeIdleMillis), localeIdleMillis);
+    }
+
+    Trigger trigger = null;
+    if (StringUtils.hasText(reloadCron)) {
+      trigger = new CronTrigger(reloadCron);
+    } else if (reloadIntervalMillis > 0) {
+      PeriodicTrigger periodicTrigger = new PeriodicTrigger(reloadIntervalMillis);
+      periodicTrigger.setInitialDelay(reloadIntervalMillis);
+      trigger = periodicTrigger;
+    }
+    if (trigger == null) {
+      return;
+    }
+
+    scheduledReload = getTaskScheduler().schedule(this::runScheduledReload, trigger);
+  }
+
+  private synchronized TaskScheduler getTaskScheduler() {
+    if (taskScheduler == null) {
+      ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+      scheduler.setThreadNamePrefix("zanata-reload-");
+      scheduler.setDaemon(true);
+      scheduler.initialize();
+      taskScheduler = scheduler;
+      ownTaskScheduler = scheduler;
+    }
+    return taskScheduler;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    CompletableFuture<Void> preload = preload();
+    if (waitForPreload) {
+      preload.join();
+    }
+  }
+
+  /**
+   * Loads the translations of all preload locales (see {@link #setPreloadLocales(Locale...)} and
+   * {@link #setPreloadAllLocales(boolean)}) concurrently. Progress is logged for each locale.
+   *
+   * @return completed when all preload locales are loaded
+   */
+  public CompletableFuture<Void> preload() {
+    Set<Locale> configuredLocales = new LinkedHashSet<>(preloadLocales);
+    if (!preloadAllLocales && configuredLocales.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("zanata-preload-");
+    threadFactory.setDaemon(true);
+    ExecutorService executor = Executors.newFixedThreadPool(PRELOAD_THREADS, threadFactory);
+    // the locale list is requested in the background too, so the caller never waits for Zanata
+    CompletableFuture<Set<Locale>> locales = preloadAllLocales
+      ? CompletableFuture.supplyAsync(() -> withExistingLocales(configuredLocales), executor)
+      : CompletableFuture.completedFuture(configuredLocales);
+
+    return locales.thenCompose(preload -> preload(preload, executor)).handle((result, e) -> {
+      executor.shutdown();
+      if (e != null) {
+        logger.warn("Preloading translations failed", e);
+      }
+      return null;
+    });
+  }
+
+  private Set<Locale> withExistingLocales(Set<Locale> configuredLocales) {
+    Set<Locale> locales = new LinkedHashSet<>(configuredLocales);
+    Set<String> localeIds = existingLocales.localeIds();
+    if (!existingLocales.isLoaded()) {
+      logger.warn("Could not load the locales from Zanata, preloading only the configured locales");
+    }
+    for (String localeId : localeIds) {
+      locales.add(StringUtils.parseLocaleString(localeId.replace('-', '_')));
+    }
+    return locales;
+  }
+
+  private CompletableFuture<Void> preload(Set<Locale> locales, ExecutorService executor) {
+    logger.info(String.format("Preloading translations for %d locales ...", locales.size()));
+    AtomicInteger loaded = new AtomicInteger();
+    CompletableFuture<?>[] loads = locales.stream()
+      .map(locale -> CompletableFuture.runAsync(() -> {
+        loadTranslations(locale, false);
+        logger.info(String.format("Preloaded translations for locale %s (%d/%d)", locale, loaded.incrementAndGet(),
+          locales.size()));
+      }, executor))
+      .toArray(CompletableFuture[]::new);
+    return CompletableFuture.allOf(loads);
+  }
+
+  private void runScheduledReload() {
+    try {
+      reloadAll();
+    } catch (RuntimeException e) {
+      logger.warn("Scheduled reload of translations failed", e);
+    }
+  }
+
+  @Override
+  public synchronized void destroy() {
+    if (scheduledReload != null) {
+      scheduledReload.cancel(false);
+      scheduledReload = null;
+    }
+    if (scheduledEviction != null) {
+      scheduledEviction.cancel(false);
+      scheduledEviction = null;
+    }
+    if (reloadNotifier != null) {
+      reloadNotifier.stop();
+    }
+    for (ScheduledFuture<?> scheduledRetry : scheduledRetries.values()) {
+      scheduledRetry.cancel(false);
+    }
+    scheduledRetries.clear();
+    if (loadExecutor != null) {
+      loadExecutor.shutdown();
+      loadExecutor = null;
+    }
+    if (ownTaskScheduler != null) {
+      ownTaskScheduler.shutdown();
+      ownTaskScheduler = null;
+      taskScheduler = null;
+    }
+    if (ownRequestFactory != null) {
+      try {
+        ownRequestFactory.destroy();
+      } catch (Exception e) {
+        logger.warn("Could not close HTTP client", e);
+      }
+      ownRequestFactory = null;
+    }
+  }
+
+
+  private TranslationIndex loadTranslations(Locale locale, boolean forceReload) {
+    TranslationIndex translations = translationsCache.get(locale);
+
+    if (translations != null && !forceReload) {
+      translations.markAccessed();
+      return translations;
+    }
+    if (!forceReload && WITHOUT_LOADING.get() != null) {
+      translations = lookupTranslations(locale);
+      if (translations == null) {
+        throw NotLoadedException.INSTANCE;
+      }
+      translations.markAccessed();
+      return translations;
+    }
+    if (translations == null && !forceReload) {
+      Locale canonicalLocale = canonicalLocale(locale);
+      if (!canonicalLocale.equals(locale)) {
+        return loadTranslations(canonicalLocale, false);
+      }
+    }
+
+    // only one thread loads a locale, all others wait for its result
+    CompletableFuture<TranslationIndex> load = new CompletableFuture<>();
+    CompletableFuture<TranslationIndex> pendingLoad = pendingLoads.putIfAbsent(locale, load);
+    boolean limitWait = !forceReload && maxLoadWaitMillis > 0;
+    if (pendingLoad != null) {
+      return limitWait ? awaitLoadLimited(pendingLoad) : awaitLoad(pendingLoad);
+    }
+    if (limitWait) {
+      try {
+        getLoadExecutor().execute(() -> {
+          try {
+            completeLoad(locale, load, false);
+          } catch (RuntimeException e) {
+            logger.warn("Could not load translations for locale " + locale, e);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        // shutting down
+        return completeLoad(locale, load, false);
+      }
+      return awaitLoadLimited(load);
+    }
+    return completeLoad(locale, load, forceReload);
+  }
+
+  /**
+   * Loads a locale for a pending load registered by the current thread and completes it.
+   */
+  private TranslationIndex completeLoad(Locale locale, CompletableFuture<TranslationIndex> load, boolean forceReload) {
+    TranslationIndex translations;
+    boolean fromSnapshot = false;
+    boolean complete = true;
+    Map<Locale, Set<String>> changes = new HashMap<>(2);
+    try {
+      translations = translationsCache.get(locale);
+      if (translations == null && !forceReload && snapshotStore != null) {
+        translations = readSnapshot(locale);
+        if (translations != null) {
+          putTranslations(locale, translations);
+          fromSnapshot = true;
+        }
+      }
+      if (translations == null || forceReload) {
+        long start = System.nanoTime();
+        // a new locale reuses the documents already loaded for other locales, a reload checks them for changes
+        TranslationIndex loaded = fetchTranslations(singletonList(locale), forceReload).get(locale);
+        metrics.load(locale, loaded.isComplete(), System.nanoTime() - start);
+        complete = loaded.isComplete();
+        translations = applyLoaded(locale, translations, loaded, changes);
+      }
+      load.complete(translations);
+    } catch (RuntimeException | Error e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      pendingLoads.remove(locale, load);
+    }
+    notifyChanged(changes);
+
+    if (fromSnapshot) {
+      // serve the stored translations right away and check for changes in the background
+      getTaskScheduler().schedule(() -> reload(locale), new Date());
+    } else {
+      afterLoad(locale, complete);
+    }
+    return translations;
+  }
+
+  /**
+   * Reloads several locales in one pass. Documents that are part of more than one locale (like "de" for de-AT and
+   * de-CH) are requested only once. Locales that are loaded by another thread right now are not loaded again, their
+   * pending load is awaited instead.
+   *
+   * @return the documents that have been downloaded again and whether all locales could be loaded
+   */
+  private ReloadResult reloadLocales(Collection<Locale> locales) {
+    Map<Locale, CompletableFuture<TranslationIndex>> loads = new LinkedHashMap<>();
+    List<CompletableFuture<TranslationIndex>> otherLoads = new ArrayList<>();
+    for (Locale locale : locales) {
+      CompletableFuture<TranslationIndex> load = new CompletableFuture<>();
+      CompletableFuture<TranslationIndex> pendingLoad = pendingLoads.putIfAbsent(locale, load);
+      if (pendingLoad == null) {
+        loads.put(locale, load);
+      } else {
+        otherLoads.add(pendingLoad);
+      }
+    }
+
+    Map<Locale, TranslationIndex> loaded;
+    ReloadResult result = new ReloadResult();
+    Map<Locale, Set<String>> changes = new LinkedHashMap<>();
+    try {
+      // documents that are downloaded again (not answered with 304 Not Modified) get a new cache entry
+      Map<String, CachedResource> previousResources = new HashMap<>();
+      for (Locale locale : loads.keySet()) {
+        for (String document : documents(locale)) {
+          CachedResource cached = resourceCache.get(document);
+          if (cached != null) {
+            previousResources.put(document, cached);
+          }
+        }
+      }
+      long start = System.nanoTime();
+      loaded = fetchTranslations(loads.keySet(), true);
+      for (Locale locale : loads.keySet()) {
+        for (String document : documents(locale)) {
+          CachedResource cached = resourceCache.get(document);
+          if (cached != null && cached != previousResources.get(document)) {
+            result.changedDocuments.add(document);
+          }
+        }
+      }
+      for (Map.Entry<Locale, CompletableFuture<TranslationIndex>> load : loads.entrySet()) {
+        Locale locale = load.getKey();
+        TranslationIndex translations = loaded.get(locale);
+        metrics.load(locale, translations.isComplete(), System.nanoTime() - start);
+        if (!translations.isComplete()) {
+          result.complete = false;
+        }
+        TranslationIndex previous = translationsCache.get(locale);
+        load.getValue().complete(applyLoaded(locale, previous, translations, changes));
+      }
+    } catch (RuntimeException | Error e) {
+      for (CompletableFuture<TranslationIndex> load : loads.values()) {
+        load.completeExceptionally(e);
+      }
+      throw e;
+    } finally {
+      for (Map.Entry<Locale, CompletableFuture<TranslationIndex>> load : loads.entrySet()) {
+        pendingLoads.remove(load.getKey(), load.getValue());
+      }
+    }
+    notifyChanged(changes);
+
+    for (Map.Entry<Locale, TranslationIndex> translations : loaded.entrySet()) {
+      afterLoad(translations.getKey(), translations.getValue().isComplete());
+    }
+    for (CompletableFuture<TranslationIndex> pendingLoad : otherLoads) {
+      awaitLoad(pendingLoad);
+    }
+    return result;
+  }
+
+  /**
+   * Applies the documents another node has reloaded to all cached locales that contain them, also to locales the other
+   * node has not loaded itself. The documents are read from the shared snapshot directory, without a snapshot
+   * directory the affected locales are reloaded from Zanata.
+   *
+   * @param documents base name and Zanata locale id, like "messages/de"
+   */
+  private void reloadDocuments(Collection<String> documents) {
+    List<Locale> affectedLocales = new ArrayList<>();
+    for (Locale locale : translationsCache.keySet()) {
+      if (!Collections.disjoint(documents(locale), documents)) {
+        affectedLocales.add(locale);
+      }
+    }
+    if (affectedLocales.isEmpty()) {
+      return;
+    }
+    logger.info(String.format("Translations %s have been reloaded on another node, updating locales %s", documents,
+      affectedLocales));
+    if (snapshotStore == null) {
+      reloadLocales(affectedLocales);
+      return;
+    }
+
+    for (String document : documents) {
+      // documents that are not cached yet are read by readSnapshot
+      if (resourceCache.containsKey(document)) {
+        int separator = document.lastIndexOf('/');
+        CachedResource stored =
+          snapshotStore.read(document.substring(0, separator), document.substring(separator + 1), keyTable);
+        if (stored != null) {
+          resourceCache.put(document, stored);
+        }
+      }
+    }
+
+    Map<Locale, Set<String>> changes = new LinkedHashMap<>();
+    for (Locale locale : affectedLocales) {
+      // a locale that is loaded right now gets the current translations anyway
+      CompletableFuture<TranslationIndex> load = new CompletableFuture<>();
+      if (pendingLoads.putIfAbsent(locale, load) != null) {
+        continue;
+      }
+      try {
+        TranslationIndex previous = translationsCache.get(locale);
+        TranslationIndex stored = readSnapshot(locale);
+        load.complete(stored != null ? applyLoaded(locale, previous, stored, changes) : previous);
+      } catch (RuntimeException | Error e) {
+        load.completeExceptionally(e);
+        throw e;
+      } finally {
+        pendingLoads.remove(locale, load);
+      }
+    }
+    notifyChanged(changes);
+  }
+
+  /**
+   * @param changes receives the changed codes of the locale, the listeners are notified with
+   *          {@link #notifyChanged(Map)} after the pending load is released
+   * @return the translations to use for the locale from now on
+   */
+  private TranslationIndex applyLoaded(Locale locale, TranslationIndex previous, TranslationIndex loaded,
+    Map<Locale, Set<String>> changes) {
+    if (previous != null && !loaded.isComplete()) {
+      logger.warn("Could not reload translations for locale " + locale + ", keeping the previous ones");
+      return previous;
+    }
+
+    Set<String> changedCodes = previous != null ? loaded.changedCodes(previous) : null;
+    if (changedCodes != null) {
+      if (changedCodes.isEmpty() && previous.isComplete()) {
+        // keep the previous index, so its formats and the cached messages stay valid
+        return previous;
+      }
+      loaded.reuseMessageFormats(previous, changedCodes);
+    }
+
+    // the new snapshot replaces the old one at once, readers never see a partially loaded locale
+    putTranslations(locale, loaded);
+    if (previous != null) {
+      patchCachedMessages(previous, loaded, changedCodes);
+    }
+    if (changedCodes != null && !changedCodes.isEmpty()) {
+      logger.info(String.format("%d texts changed for locale %s", changedCodes.size(), locale));
+      changes.put(locale, Collections.unmodifiableSet(changedCodes));
+    }
+    return loaded;
+  }
+
+  /**
+   * Calls the listeners outside of the pending loads, so a listener that looks up texts does not wait for itself.
+   */
+  private void notifyChanged(Map<Locale, Set<String>> changes) {
+    changes.forEach((locale, codes) -> {
+      for (TranslationsChangedListener listener : changedListeners) {
+        try {
+          listener.translationsChanged(locale, codes);
+        } catch (RuntimeException e) {
+          logger.warn("Translations changed listener failed", e);
+        }
+      }
+    });
   }
 
   /**
-   * Sets which states Zanata will accept as Translation.
-   * Default is: Translated and Approved
+   * Updates only the changed codes in the cached results of {@link #getAllMessages(Locale)} that were built from the
+   * previous translations (for the locale itself and the requested locales mapped to it). If a code was removed the
+   * parent may have a text for it, then the cached messages are built again on the next access.
    *
-   * @param acceptStates the accepted states
+   * @param changedCodes the changed codes, <code>null</code> if unknown
    */
-  public void setAcceptStates(ContentState... acceptStates)
-  {
-    this.acceptStates = Arrays.asList(acceptStates);
+  private void patchCachedMessages(TranslationIndex previous, TranslationIndex loaded, Set<String> changedCodes) {
+    for (Map.Entry<Locale, CachedMessages> entry : allMessagesCache.entrySet()) {
+      CachedMessages cachedMessages = entry.getValue();
+      if (cachedMessages.translations != previous) {
+        continue;
+      }
+      CachedMessages patched = changedCodes != null ? cachedMessages.patch(loaded, changedCodes) : null;
+      if (patched != null) {
+        allMessagesCache.replace(entry.getKey(), cachedMessages, patched);
+      } else {
+        // do not keep the previous translations reachable
+        allMessagesCache.remove(entry.getKey(), cachedMessages);
+      }
+    }
   }
 
   /**
-   * Clears the cache for all locales and message bundles.
+   * Maps a requested locale to the most specific locale that exists in Zanata. Both have the same Zanata locales to
+   * look up, so they can share their translations. Locales that do not exist in Zanata at all are mapped to
+   * {@link Locale#ROOT}. The mapping is kept until the list of Zanata locales is refreshed.
    */
-  public void clearCache() {
-    logger.info("Going to clear cache...");
-    synchronized (existingLocalesLock) {
-      existingLocales = null;
+  private Locale canonicalLocale(Locale locale) {
+    Set<String> localeIds = existingLocales.localeIds();
+    LocaleAlias alias = localeAliases.get(locale);
+    if (alias != null && alias.localeIds == localeIds) {
+      return alias.canonicalLocale;
+    }
+    if (localeIds.isEmpty()) {
+      // the Zanata locales are not known yet
+      return locale;
+    }
+
+    Locale canonicalLocale = Locale.ROOT;
+    for (String language : zanataLanguages(locale)) {
+      if (localeIds.contains(language)) {
+        Locale candidate = StringUtils.parseLocaleString(language.replace('-', '_'));
+        // keep locale ids that do not map back to themselves (like "zh-Hans") as they are
+        canonicalLocale = candidate != null && zanataLanguages(candidate).get(0).equals(language) ? candidate : locale;
+        break;
+      }
+    }
+    if (localeAliases.size() >= MAX_LOCALE_ALIASES) {
+      localeAliases.clear();
+    }
+    localeAliases.put(locale, new LocaleAlias(canonicalLocale, localeIds));
+    return canonicalLocale;
+  }
+
+  private void putTranslations(Locale locale, TranslationIndex translations) {
+    boolean added = translationsCache.put(locale, translations) == null;
+    metrics.cacheSize(locale, translations.size());
+    if (added && maxCachedLocales > 0 && translationsCache.size() > maxCachedLocales) {
+      evictLocales(translationsCache.size() - maxCachedLocales, locale);
     }
-    translationsCache.clear();
   }
 
   /**
-   * Reloads the translations for the given locales from zanata. Only if the translations from zanata could be loaded,
-   * the translation cache will be updated
-   * @param locales the locales that should be reloaded
+   * Removes locales, first the ones that have not been used since the last eviction.
    */
-  public void reload(Locale ... locales) {
-    logger.info("Going to reload the translations ...");
-
-    if(locales != null && locales.length > 0) {
-      for(Locale locale : locales) {
-        logger.info(String.format("Reload translation for locale %s", locale));
-        loadTranslations(locale, true);
+  private void evictLocales(int count, Locale keep) {
+    int evicted = 0;
+    for (Map.Entry<Locale, TranslationIndex> entry : translationsCache.entrySet()) {
+      if (evicted < count && !entry.getKey().equals(keep) && !entry.getValue().resetAccessed()) {
+        evicted += evictLocale(entry.getKey(), entry.getValue()) ? 1 : 0;
+      }
+    }
+    for (Map.Entry<Locale, TranslationIndex> entry : translationsCache.entrySet()) {
+      if (evicted < count && !entry.getKey().equals(keep)) {
+        evicted += evictLocale(entry.getKey(), entry.getValue()) ? 1 : 0;
       }
     }
   }
 
+  private void evictIdleLocales() {
+    for (Map.Entry<Locale, TranslationIndex> entry : translationsCache.entrySet()) {
+      if (!entry.getValue().resetAccessed()) {
+        evictLocale(entry.getKey(), entry.getValue());
+      }
+    }
+    allMessagesCache.values().removeIf(cachedMessages -> !cachedMessages.resetAccessed());
+  }
 
-  private TranslationsResource[] loadTranslations(Locale locale, boolean forceReload) {
-    TranslationsResource[] translations = translationsCache.get(locale);
+  /**
+   * Removes cached results of {@link #getAllMessages(Locale)}, first the ones that have not been used since the last
+   * eviction.
+   */
+  private void evictCachedMessages(int count, Locale keep) {
+    int evicted = 0;
+    for (Map.Entry<Locale, CachedMessages> entry : allMessagesCache.entrySet()) {
+      if (evicted < count && !entry.getKey().equals(keep) && !entry.getValue().resetAccessed()) {
+        evicted += allMessagesCache.remove(entry.getKey(), entry.getValue()) ? 1 : 0;
+      }
+    }
+    for (Map.Entry<Locale, CachedMessages> entry : allMessagesCache.entrySet()) {
+      if (evicted < count && !entry.getKey().equals(keep)) {
+        evicted += allMessagesCache.remove(entry.getKey(), entry.getValue()) ? 1 : 0;
+      }
+    }
+  }
 
-    if (translations != null && !forceReload) {
-      return translations;
+  private boolean evictLocale(Locale locale, TranslationIndex translations) {
+    if (!translationsCache.remove(locale, translations)) {
+      return false;
     }
+    logger.debug("Removing unused translations for locale " + locale);
+    // also the messages of requested locales mapped to this locale
+    allMessagesCache.values().removeIf(cachedMessages -> cachedMessages.translations == translations);
+    retryAttempts.remove(locale);
+    ScheduledFuture<?> scheduledRetry = scheduledRetries.remove(locale);
+    if (scheduledRetry != null) {
+      scheduledRetry.cancel(false);
+    }
+    metrics.cacheSize(locale, 0);
+    pruneResources();
+    return true;
+  }
 
-    List<TranslationsResource> translationList = new ArrayList<>();
+  /**
+   * Removes the documents that are not part of any cached locale anymore.
+   */
+  private void pruneResources() {
+    Set<String> usedDocuments = new HashSet<>();
+    for (Locale cachedLocale : translationsCache.keySet()) {
+      usedDocuments.addAll(documents(cachedLocale));
+    }
+    resourceCache.keySet().retainAll(usedDocuments);
+  }
 
+  /**
+   * @return the documents (base name and Zanata locale id, like "messages/de") the texts of a locale are merged from
+   */
+  private List<String> documents(Locale locale) {
+    List<String> languages = zanataLanguages(locale);
+    List<String> documents = new ArrayList<>(basenameSet.size() * languages.size());
     for (String baseName : basenameSet) {
+      for (String language : languages) {
+        documents.add(baseName + "/" + language);
+      }
+    }
+    return documents;
+  }
 
-      if (StringUtils.hasText(locale.getVariant())) {
-        TranslationsResource translation = loadTranslation(locale.getLanguage() + "-" + locale.getCountry()
-          + "-" + locale.getVariant(), baseName);
-        if (translation != null) {
-          translationList.add(translation);
-        }
+  private void afterLoad(Locale locale, boolean complete) {
+    if (complete) {
+      retryAttempts.remove(locale);
+    } else {
+      scheduleRetry(locale);
+    }
+  }
+
+  /**
+   * Loads a locale again in the background, with exponential backoff and not before the circuit breaker lets
+   * requests through again. Lookups keep using the current translations meanwhile.
+   */
+  private void scheduleRetry(Locale locale) {
+    if (failureRetryMillis < 0 || scheduledRetries.containsKey(locale)) {
+      return;
+    }
+    int attempt = retryAttempts.merge(locale, 1, Integer::sum);
+    long backoff = Backoff.delay(failureRetryMillis, attempt);
+    long delay = Math.max(backoff, circuitBreaker.remainingOpenMillis());
+    logger.info(String.format("Retrying to load translations for locale %s in %d ms", locale, delay));
+    scheduledRetries.computeIfAbsent(locale, key -> getTaskScheduler().schedule(() -> {
+      scheduledRetries.remove(key);
+      try {
+        loadTranslations(key, true);
+      } catch (RuntimeException e) {
+        logger.warn("Retrying to load translations for locale " + key + " failed", e);
       }
+    }, new Date(System.currentTimeMillis() + delay)));
+  }
 
-      if (StringUtils.hasText(locale.getCountry())) {
-        TranslationsResource translation = loadTranslation(locale.getLanguage() + "-" + locale.getCountry(), baseName);
-        if (translation != null) {
-          translationList.add(translation);
+  /**
+   * Builds the translations of a locale from the cached documents, the missing ones are read from the snapshot store.
+   */
+  private TranslationIndex readSnapshot(Locale locale) {
+    List<TranslationEntries> translationList = new ArrayList<>();
+    for (String baseName : basenameSet) {
+      for (String language : zanataLanguages(locale)) {
+        CachedResource cached = resourceCache.get(baseName + "/" + language);
+        if (cached != null) {
+          translationList.add(cached.entries);
+          continue;
+        }
+        cached = snapshotStore.read(baseName, language, keyTable);
+        if (cached != null) {
+          resourceCache.putIfAbsent(baseName + "/" + language, cached);
+          translationList.add(cached.entries);
         }
       }
+    }
+    return translationList.isEmpty() ? null : TranslationIndex.of(keyTable, translationList, true);
+  }
 
-      TranslationsResource translation = loadTranslation(locale.getLanguage(), baseName);
-      if (translation != null) {
-        translationList.add(translation);
-      }
+  /**
+   * Waits at most {@link #setMaxLoadWaitMillis(long)} for a locale that is not loaded yet.
+   *
+   * @return the loaded translations, or empty ones if the load takes longer (it goes on in the background)
+   */
+  private TranslationIndex awaitLoadLimited(CompletableFuture<TranslationIndex> pendingLoad) {
+    try {
+      return pendingLoad.get(maxLoadWaitMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      return TranslationIndex.empty(keyTable);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return TranslationIndex.empty(keyTable);
+    } catch (ExecutionException e) {
+      return awaitLoad(pendingLoad);
     }
+  }
 
-    translations = translationList.toArray(new TranslationsResource[translationList.size()]);
-    translationsCache.put(locale, translations);
+  private synchronized ExecutorService getLoadExecutor() {
+    if (loadExecutor == null) {
+      CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("zanata-load-");
+      threadFactory.setDaemon(true);
+      loadExecutor = Executors.newCachedThreadPool(threadFactory);
+    }
+    return loadExecutor;
+  }
 
-    return translations;
+  private <T> T awaitLoad(CompletableFuture<T> pendingLoad, long deadline) {
+    if (deadline == Long.MAX_VALUE || pendingLoad.isDone()) {
+      return awaitLoad(pendingLoad);
+    }
+    try {
+      return pendingLoad.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw new ResourceAccessException("Reload timeout of " + reloadTimeout + " ms exceeded");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResourceAccessException("Interrupted while loading translations");
+    } catch (ExecutionException e) {
+      return awaitLoad(pendingLoad);
+    }
+  }
+
+  private static <T> T awaitLoad(CompletableFuture<T> pendingLoad) {
+    try {
+      return pendingLoad.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
   }
 
-  private TranslationsResource loadTranslation(String language, String resourceName) {
-    synchronized (existingLocalesLock) {
-      if (existingLocales == null) {
-        existingLocales = Arrays.stream(loadLocales())
-          .map(locale -> locale.localeId)
-          .collect(Collectors.toSet());
+  /**
+   * Fetches the translations of several locales. Each document (base name and Zanata locale id) is requested once.
+   *
+   * @param revalidate <code>true</code> to request documents that have already been loaded for another locale again
+   * @return the translations for each locale, incomplete if some documents could not be loaded
+   */
+  private Map<Locale, TranslationIndex> fetchTranslations(Collection<Locale> locales, boolean revalidate) {
+    long deadline = reloadTimeout > 0 ? System.currentTimeMillis() + reloadTimeout : Long.MAX_VALUE;
+
+    // without an executor the requests run one after another on the calling thread
+    Executor executor = fetchExecutor != null ? fetchExecutor : Runnable::run;
+    Map<String, CompletableFuture<TranslationEntries>> futures = new HashMap<>();
+    Map<Locale, List<String>> documents = new LinkedHashMap<>();
+    // after Zanata could not be reached the remaining documents fail at once instead of each waiting for a timeout
+    AtomicBoolean unreachable = new AtomicBoolean();
+    for (Locale locale : locales) {
+      List<String> localeDocuments = new ArrayList<>();
+      for (String baseName : basenameSet) {
+        for (String language : zanataLanguages(locale)) {
+          String document = baseName + "/" + language;
+          localeDocuments.add(document);
+          if (!futures.containsKey(document)) {
+            futures.put(document, CompletableFuture.supplyAsync(() -> {
+              if (System.currentTimeMillis() >= deadline) {
+                throw new ResourceAccessException("Reload timeout of " + reloadTimeout + " ms exceeded");
+              }
+              if (unreachable.get()) {
+                throw new ResourceAccessException("Zanata is not called because it could not be reached");
+              }
+              try {
+                return loadTranslation(language, baseName, revalidate);
+              } catch (ResourceAccessException e) {
+                unreachable.set(true);
+                throw e;
+              }
+            }, executor));
+          }
+        }
+      }
+      documents.put(locale, localeDocuments);
+    }
+
+    Map<Locale, TranslationIndex> result = new LinkedHashMap<>();
+    Set<String> failed = new HashSet<>();
+    for (Map.Entry<Locale, List<String>> localeDocuments : documents.entrySet()) {
+      // keep the results in lookup order
+      List<TranslationEntries> translationList = new ArrayList<>();
+      boolean complete = true;
+      for (String document : localeDocuments.getValue()) {
+        try {
+          TranslationEntries translation = awaitLoad(futures.get(document), deadline);
+          if (translation != null) {
+            translationList.add(translation);
+          }
+        } catch (RestClientException e) {
+          // log each document once, even if it is part of several locales
+          if (failed.add(document)) {
+            if (circuitBreaker.isOpen()) {
+              logger.debug("Could not load translations " + document + ": " + e.getMessage());
+            } else {
+              logger.warn("Could not load translations " + document, e);
+            }
+          }
+          complete = false;
+        }
       }
+      result.put(localeDocuments.getKey(), TranslationIndex.of(keyTable, translationList, complete));
+    }
+    return result;
+  }
+
+  /**
+   * @return the Zanata locale ids to look up for a locale, most specific first
+   */
+  private static List<String> zanataLanguages(Locale locale) {
+    List<String> languages = new ArrayList<>(3);
+    if (StringUtils.hasText(locale.getVariant())) {
+      languages.add(locale.getLanguage() + "-" + locale.getCountry() + "-" + locale.getVariant());
+    }
+    if (StringUtils.hasText(locale.getCountry())) {
+      languages.add(locale.getLanguage() + "-" + locale.getCountry());
+    }
+    languages.add(locale.getLanguage());
+    return languages;
+  }
 
-      if (!existingLocales.contains(language)) {
-        logger.info("Locale not exists " + language);
-        return null;
+  /**
+   * Loads one document. Documents are cached by base name and Zanata locale id and shared by all locales that contain
+   * them (like "de" for de-AT and de-CH), so each one is requested, parsed and held in memory only once.
+   *
+   * @param revalidate <code>false</code> to use the cached document without a request
+   */
+  private TranslationEntries loadTranslation(String language, String resourceName, boolean revalidate) {
+    if (!existingLocales.localeIds().contains(language)) {
+      if (!existingLocales.isLoaded()) {
+        // unknown because the locales could not be loaded, so the load is incomplete and retried
+        throw new ResourceAccessException("Zanata locales could not be loaded");
       }
+      logger.info("Locale not exists " + language);
+      return null;
     }
 
+    String cacheKey = resourceName + "/" + language;
+    CachedResource cached = resourceCache.get(cacheKey);
+    if (cached != null && !revalidate) {
+      return cached.entries;
+    }
+
+    URI uri;
     try {
-      URI uri = new URI(zanataBaseUrl
+      uri = new URI(zanataBaseUrl
         + "/rest/projects/p/" + project
         + "/iterations/i/" + iteration
         + "/r/" + resourceName
         + "/translations/" + language);
+    } catch (URISyntaxException e) {
+      logger.warn("Could not load translations for lang " + language, e);
+      return null;
+    }
 
-      RequestEntity<Void> request = RequestEntity.get(uri).accept(MediaType.APPLICATION_JSON).build();
-
-      ResponseEntity<TranslationsResource> response = getRestTemplate().exchange(request, TranslationsResource.class);
+    if (!circuitBreaker.allowRequest()) {
+      metrics.fetch(resourceName, language, "rejected", 0, 0);
+      throw new ResourceAccessException("Zanata is not called because of previous failures");
+    }
 
-      TranslationsResource translation = response.getBody();
-      // ignore translations that are in a wrong state
-      if (translation != null && translation.textFlowTargets != null)
-      {
-        translation.textFlowTargets.removeIf(textFlowTarget -> !acceptStates.contains(textFlowTarget.state));
+    long start = System.nanoTime();
+    CachedResource loaded;
+    try {
+      loaded = getRestTemplate().execute(uri, HttpMethod.GET,
+        request -> {
+          HttpHeaders headers = request.getHeaders();
+          headers.setAccept(singletonList(MediaType.APPLICATION_JSON));
+          if (cached != null) {
+            // let Zanata answer with 304 Not Modified if nothing changed
+            if (cached.eTag != null) {
+              headers.setIfNoneMatch(cached.eTag);
+            }
+            if (cached.lastModified >= 0) {
+              headers.setIfModifiedSince(cached.lastModified);
+            }
+          }
+        },
+        response -> {
+          if (cached != null && response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+            notModifiedCount.incrementAndGet();
+            metrics.fetch(resourceName, language, "not-modified", System.nanoTime() - start, 0);
+            return cached;
+          }
+          fullDownloadCount.incrementAndGet();
+          // ignore translations that are in a wrong state
+          CountingInputStream body = new CountingInputStream(response.getBody());
+          TranslationEntries entries = TranslationsParser.parse(body, acceptStates, keyTable);
+          metrics.fetch(resourceName, language, "ok", System.nanoTime() - start, body.count);
+          HttpHeaders headers = response.getHeaders();
+          return new CachedResource(entries, headers.getETag(), headers.getLastModified());
+        });
+      circuitBreaker.recordSuccess();
+    } catch (RestClientException e) {
+      metrics.fetch(resourceName, language, "error", System.nanoTime() - start, 0);
+      recordFailure(e);
+      if (isUnavailable(e)) {
+        throw e;
       }
-      return translation;
-    } catch (RestClientException | URISyntaxException e) {
+      // Zanata answered, e.g. with 404 for a missing document: there are no translations
       logger.warn("Could not load translations for lang " + language, e);
+      resourceCache.remove(cacheKey);
+      return null;
+    } finally {
+      circuitBreaker.releaseTrial();
+    }
+
+    if (loaded == null) {
+      return null;
+    }
+    if (loaded != cached) {
+      resourceCache.put(cacheKey, loaded);
+      if (snapshotStore != null) {
+        snapshotStore.write(resourceName, language, loaded);
+      }
     }
-    return null;
+    return loaded.entries;
   }
 
-  private LocaleDetails[] loadLocales() {
+  private Set<String> loadLocales() {
+    URI uri;
     try {
-      URI uri = new URI(zanataBaseUrl
+      uri = new URI(zanataBaseUrl
         + "/rest/projects/p/" + project
         + "/iterations/i/" + iteration
         + "/locales");
+    } catch (URISyntaxException e) {
+      throw new IllegalStateException("Invalid Zanata URL " + zanataBaseUrl, e);
+    }
 
-      RequestEntity<Void> request = RequestEntity.get(uri).accept(MediaType.APPLICATION_JSON).build();
+    RequestEntity<Void> request = RequestEntity.get(uri).accept(MediaType.APPLICATION_JSON).build();
+
+    if (!circuitBreaker.allowRequest()) {
+      throw new ResourceAccessException("Zanata is not called because of previous failures");
+    }
+
+    long start = System.nanoTime();
+    ResponseEntity<LocaleDetails[]> response;
+    try {
+      response = getRestTemplate().exchange(request, LocaleDetails[].class);
+      metrics.localesFetch(true, System.nanoTime() - start);
+      circuitBreaker.recordSuccess();
+    } catch (RestClientException e) {
+      metrics.localesFetch(false, System.nanoTime() - start);
+      recordFailure(e);
+      throw e;
+    } finally {
+      circuitBreaker.releaseTrial();
+    }
 
-      ResponseEntity<LocaleDetails[]> response = getRestTemplate().exchange(request, LocaleDetails[].class);
+    LocaleDetails[] localeDetails = response.getBody();
+    if (localeDetails == null) {
+      return Collections.emptySet();
+    }
+    return Arrays.stream(localeDetails)
+      .map(locale -> locale.localeId)
+      .collect(Collectors.toSet());
+  }
 
-      return response.getBody();
-    } catch (RestClientException | URISyntaxException e) {
-      logger.warn("Could not load languages", e);
+  private void recordFailure(RestClientException e) {
+    if (isUnavailable(e)) {
+      circuitBreaker.recordFailure();
+    } else {
+      // Zanata answered, e.g. with 404 for a missing resource
+      circuitBreaker.recordSuccess();
     }
-    return new LocaleDetails[0];
+  }
+
+  /**
+   * @return <code>true</code> if Zanata could not be reached or failed (5xx), so a load is incomplete and is retried
+   */
+  private static boolean isUnavailable(RestClientException e) {
+    return e instanceof ResourceAccessException || e instanceof HttpServerErrorException;
   }
 
   @Override
   protected MessageFormat resolveCode(String code, Locale locale) {
-    return resolveCodeTextFlowTarget(code, locale)
-      .map(tf -> new MessageFormat(tf.content, locale))
-      .orElse(null);
+    MessageFormat messageFormat = loadTranslations(locale, false)
+      .getMessageFormat(code, locale, messageFormatCacheSize);
+    recordLookup(locale, messageFormat != null);
+    return messageFormat;
   }
 
   @Override
   protected String resolveCodeWithoutArguments(String code, Locale locale) {
-    return resolveCodeTextFlowTarget(code, locale)
-      .map(tf -> tf.content)
-      .orElse(null);
+    String message = loadTranslations(locale, false).get(code);
+    recordLookup(locale, message != null);
+    return message;
   }
 
-  private Optional<TextFlowTarget> resolveCodeTextFlowTarget(String code, Locale locale) {
-    TranslationsResource[] translations = loadTranslations(locale, false);
+  @Override
+  protected String getMessageInternal(String code, Object[] args, Locale locale) {
+    if (code == null || (ObjectUtils.isEmpty(args) && !isAlwaysUseMessageFormat())) {
+      return super.getMessageInternal(code, args, locale);
+    }
 
-    return Arrays.stream(translations)
-      .flatMap(translation -> translation.textFlowTargets.stream())
-      .filter(textFlowTarget -> textFlowTarget.resId.equals(code))
-      .findFirst();
+    // simple patterns are formatted without MessageFormat, the others as usual
+    Locale localeToUse = locale != null ? locale : Locale.getDefault();
+    Object[] argsToUse = resolveArguments(args, localeToUse);
+    String message = loadTranslations(localeToUse, false).format(code, argsToUse);
+    if (message != null) {
+      recordLookup(localeToUse, true);
+      return message;
+    }
+    return super.getMessageInternal(code, argsToUse, localeToUse);
   }
 
   @Override
-  public Properties getAllProperties(Locale locale) {
-    Properties allProperties = new Properties();
+  protected String getMessageFromParent(String code, Object[] args, Locale locale) {
+    if (getParentMessageSource() != null && metrics != ZanataMetrics.NONE) {
+      metrics.parentFallback(metricsLocale(locale != null ? locale : Locale.getDefault()));
+    }
+    return super.getMessageFromParent(code, args, locale);
+  }
+
+  private void recordLookup(Locale locale, boolean hit) {
+    if (metrics != ZanataMetrics.NONE) {
+      metrics.lookup(metricsLocale(locale), hit);
+    }
+  }
+
+  /**
+   * @return the locale the translations of a requested locale are cached for, so there is one metrics series per Zanata
+   *         locale and not one per requested locale
+   */
+  private Locale metricsLocale(Locale locale) {
+    if (translationsCache.containsKey(locale)) {
+      return locale;
+    }
+    LocaleAlias alias = localeAliases.get(locale);
+    return alias != null ? alias.canonicalLocale : Locale.ROOT;
+  }
+
+  /**
+   * Resolves several message codes without arguments at once: the translations of the locale are looked up once for
+   * all codes, and the codes without translation are passed to the parent message source together (in one call if it
+   * is a {@link ZanataMessageSource}, which passes its own misses on the same way). Each text is the same
+   * {@link #getMessage(String, Object[], Locale)} returns without arguments: codes without translation are looked up in
+   * the common messages and then in the parent message sources (with their own parents).
+   *
+   * @param codes the message codes
+   * @param locale the locale
+   * @return the texts by message code, codes without text are not contained (unless
+   *         {@link #setUseCodeAsDefaultMessage(boolean)} is set)
+   */
+  public Map<String, String> getMessages(Collection<String> codes, Locale locale) {
+    Locale localeToUse = locale != null ? locale : Locale.getDefault();
+    Map<String, String> messages = new HashMap<>(codes.size() * 4 / 3 + 1);
+    resolveMessages(codes, localeToUse, messages);
+    if (isUseCodeAsDefaultMessage()) {
+      for (String code : codes) {
+        messages.putIfAbsent(code, code);
+      }
+    }
+    return messages;
+  }
+
+  /**
+   * Resolves several codes like {@link #getMessageInternal(String, Object[], Locale)} without arguments.
+   *
+   * @param messages receives the texts by message code, codes without text are not added
+   */
+  private void resolveMessages(Collection<String> codes, Locale locale, Map<String, String> messages) {
+    TranslationIndex translations = loadTranslations(locale, false);
+    Locale metricsLocale = metricsLocale(locale);
+    Object[] noArgs = resolveArguments(null, locale);
+    Properties commonMessages = getCommonMessages();
+    List<String> parentCodes = new ArrayList<>();
+    for (String code : codes) {
+      String message = isAlwaysUseMessageFormat() ? translations.format(code, noArgs) : translations.get(code);
+      if (message == null && isAlwaysUseMessageFormat()) {
+        // a pattern the precompiled template cannot format
+        MessageFormat messageFormat = translations.getMessageFormat(code, locale, messageFormatCacheSize);
+        if (messageFormat != null) {
+          synchronized (messageFormat) {
+            message = messageFormat.format(noArgs);
+          }
+        }
+      }
+      if (metrics != ZanataMetrics.NONE) {
+        metrics.lookup(metricsLocale, message != null);
+      }
+      if (message == null && commonMessages != null) {
+        String commonMessage = commonMessages.getProperty(code);
+        if (commonMessage != null) {
+          message = formatMessage(commonMessage, null, locale);
+        }
+      }
+      if (message != null) {
+        messages.put(code, message);
+      } else {
+        parentCodes.add(code);
+      }
+    }
 
-    final TranslationsResource[] translationsResources = loadTranslations(locale, false);
-    if (translationsResources != null && translationsResources.length > 0) {
-      for (TranslationsResource translationsResource : translationsResources) {
-        translationsResource.textFlowTargets.stream()
-          .collect(Collectors.toMap(t -> t.resId, t -> t.content))
-          .forEach(allProperties::putIfAbsent);
+    MessageSource parentMessageSource = getParentMessageSource();
+    if (parentCodes.isEmpty() || parentMessageSource == null) {
+      return;
+    }
+    if (parentMessageSource instanceof ZanataMessageSource) {
+      // one pass through the parent chain for all codes
+      if (metrics != ZanataMetrics.NONE) {
+        for (int i = 0; i < parentCodes.size(); i++) {
+          metrics.parentFallback(metricsLocale);
+        }
+      }
+      ((ZanataMessageSource) parentMessageSource).resolveMessages(parentCodes, locale, messages);
+      return;
+    }
+    for (String code : parentCodes) {
+      String message = getMessageFromParent(code, null, locale);
+      if (message != null) {
+        messages.put(code, message);
       }
     }
+  }
+
+  /**
+   * Returns all texts for a locale, from Zanata and from the parent {@link MessageSource} (if it is an
+   * {@link AllPropertiesSource}). Other than {@link #getAllMessages(Locale)} the result is built on every call, so it
+   * always contains the current texts of a reloadable parent.
+   */
+  @Override
+  public Properties getAllProperties(Locale locale) {
+    Properties allProperties = new Properties();
+    loadTranslations(locale, false).forEach(allProperties::put);
 
     MessageSource parentMessageSource = getParentMessageSource();
     if (parentMessageSource instanceof AllPropertiesSource) {
@@ -322,12 +1746,81 @@ public class ZanataMessageSource extends AbstractMessageSource implements AllPro
     return allProperties;
   }
 
-  private RestTemplate getRestTemplate() {
+  /**
+   * Returns all texts for a locale, from Zanata and from the parent {@link MessageSource} (if it is an
+   * {@link AllPropertiesSource}). The result is cached until the translations of the locale are reloaded, so
+   * changes in the parent are only picked up on reload.
+   *
+   * @param locale the locale
+   * @return all texts by message code (unmodifiable)
+   */
+  public Map<String, String> getAllMessages(Locale locale) {
+    return getCachedMessages(locale).messages;
+  }
+
+  /**
+   * Returns the same texts as {@link #getAllMessages(Locale)} serialized as JSON object. The JSON and its ETag are
+   * cached until the translations of the locale are reloaded.
+   *
+   * @param locale the locale
+   * @return all texts as JSON
+   */
+  public MessagesJson getAllMessagesJson(Locale locale) {
+    CachedMessages cachedMessages = getCachedMessages(locale);
+    MessagesJson json = cachedMessages.json;
+    if (json == null) {
+      json = MessagesJson.of(cachedMessages.messages);
+      cachedMessages.json = json;
+    }
+    return json;
+  }
+
+  private CachedMessages getCachedMessages(Locale locale) {
+    TranslationIndex translations = loadTranslations(locale, false);
+    CachedMessages cachedMessages = allMessagesCache.get(locale);
+    if (cachedMessages != null && cachedMessages.translations == translations) {
+      cachedMessages.markAccessed();
+      return cachedMessages;
+    }
+
+    Map<String, String> messages = new HashMap<>(translations.size() * 4 / 3 + 1);
+    translations.forEach(messages::put);
+
+    MessageSource parentMessageSource = getParentMessageSource();
+    if (parentMessageSource instanceof AllPropertiesSource) {
+      ((AllPropertiesSource) parentMessageSource).getAllProperties(locale)
+        .forEach((key, value) -> messages.putIfAbsent(String.valueOf(key), String.valueOf(value)));
+    }
+
+    cachedMessages = new CachedMessages(translations, Collections.unmodifiableMap(messages));
+    // keyed by the requested locale, bounded like the translations so unusual locales cannot fill it up
+    int maxEntries = maxCachedLocales > 0 ? maxCachedLocales : MAX_LOCALE_ALIASES;
+    if (allMessagesCache.put(locale, cachedMessages) == null && allMessagesCache.size() > maxEntries) {
+      evictCachedMessages(allMessagesCache.size() - maxEntries, locale);
+    }
+    if (!translationsCache.containsValue(translations)) {
+      // evicted in the meantime, do not keep it reachable
+      allMessagesCache.remove(locale, cachedMessages);
+    }
+    return cachedMessages;
+  }
+
+  private synchronized RestTemplate getRestTemplate() {
     if (restTemplate == null) {
-      SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-      factory.setConnectTimeout(TIMEOUT);
-      factory.setReadTimeout(TIMEOUT);
-      restTemplate = new RestTemplate(factory);
+      if (HttpComponentsRequestFactory.isAvailable()) {
+        HttpComponentsClientHttpRequestFactory factory =
+          HttpComponentsRequestFactory.create(connectTimeout, readTimeout, maxConnections);
+        ownRequestFactory = factory;
+        restTemplate = new RestTemplate(factory);
+      } else {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(connectTimeout);
+        factory.setReadTimeout(readTimeout);
+        restTemplate = new RestTemplate(factory);
+      }
+      if (authInterceptor != null) {
+        restTemplate.setInterceptors(singletonList(authInterceptor));
+      }
     }
     return restTemplate;
   }
@@ -339,6 +1832,136 @@ public class ZanataMessageSource extends AbstractMessageSource implements AllPro
     public List<TextFlowTarget> textFlowTargets = new ArrayList<>();
   }
 
+  /**
+   * Counts the bytes read from a response body.
+   */
+  private static class CountingInputStream extends FilterInputStream {
+    long count;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int read = super.read();
+      if (read >= 0) {
+        count++;
+      }
+      return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = super.read(b, off, len);
+      if (read > 0) {
+        count += read;
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+  }
+
+  /**
+   * The locale whose translations a requested locale uses, valid as long as the list of Zanata locales it was
+   * determined from is current.
+   */
+  private static class LocaleAlias {
+    final Locale canonicalLocale;
+    final Set<String> localeIds;
+
+    LocaleAlias(Locale canonicalLocale, Set<String> localeIds) {
+      this.canonicalLocale = canonicalLocale;
+      this.localeIds = localeIds;
+    }
+  }
+
+  /**
+   * Aborts a lookup of {@link #resolveWithoutLoading(Supplier)}.
+   */
+  static final class NotLoadedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    static final NotLoadedException INSTANCE = new NotLoadedException();
+
+    private NotLoadedException() {
+      super("Translations are not loaded", null, false, false);
+    }
+  }
+
+  private static class ReloadResult {
+    final Set<String> changedDocuments = new LinkedHashSet<>();
+    boolean complete = true;
+  }
+
+  /**
+   * All texts of a locale, valid as long as the translations of the locale are not reloaded.
+   */
+  private static class CachedMessages {
+    final TranslationIndex translations;
+    final Map<String, String> messages;
+    volatile MessagesJson json;
+    private volatile boolean accessed = true;
+
+    CachedMessages(TranslationIndex translations, Map<String, String> messages) {
+      this.translations = translations;
+      this.messages = messages;
+    }
+
+    /**
+     * @return the messages with the changed codes of the new translations, <code>null</code> if a code was removed
+     */
+    CachedMessages patch(TranslationIndex loaded, Set<String> changedCodes) {
+      Map<String, String> patched = new HashMap<>(messages);
+      for (String code : changedCodes) {
+        String message = loaded.get(code);
+        if (message == null) {
+          return null;
+        }
+        patched.put(code, message);
+      }
+      return new CachedMessages(loaded, Collections.unmodifiableMap(patched));
+    }
+
+    void markAccessed() {
+      if (!accessed) {
+        accessed = true;
+      }
+    }
+
+    /**
+     * @return <code>true</code> if the messages were used since the last call
+     */
+    boolean resetAccessed() {
+      boolean wasAccessed = accessed;
+      if (wasAccessed) {
+        accessed = false;
+      }
+      return wasAccessed;
+    }
+  }
+
+  /**
+   * The accepted entries of a {@link TranslationsResource} together with the HTTP validators it was sent with.
+   */
+  static class CachedResource {
+    final TranslationEntries entries;
+    final String eTag;
+    final long lastModified;
+
+    CachedResource(TranslationEntries entries, String eTag, long lastModified) {
+      this.entries = entries;
+      this.eTag = eTag;
+      this.lastModified = lastModified;
+    }
+  }
+
   /**
    * This class contains string contents for a single translatable message.
    */
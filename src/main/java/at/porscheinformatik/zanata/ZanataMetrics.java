@@ -0,0 +1,75 @@
+package at.porscheinformatik.zanata;
+
+import java.util.Locale;
+
+/**
+ * Receives measurements from {@link ZanataMessageSource}. All methods do nothing by default, see
+ * {@link MicrometerZanataMetrics} for an implementation based on Micrometer.
+ */
+public interface ZanataMetrics {
+
+  /**
+   * Does not record anything.
+   */
+  ZanataMetrics NONE = new ZanataMetrics() {
+  };
+
+  /**
+   * A message code was looked up in the Zanata translations.
+   *
+   * @param locale the Zanata locale the requested locale is mapped to (like "de" for de-AT if Zanata has no de-AT),
+   *          {@link Locale#ROOT} if it is not known
+   * @param hit <code>true</code> if Zanata has a text for the code
+   */
+  default void lookup(Locale locale, boolean hit) {
+  }
+
+  /**
+   * A message code was not found in Zanata and is resolved by the parent message source.
+   *
+   * @param locale the Zanata locale the requested locale is mapped to (like "de" for de-AT if Zanata has no de-AT),
+   *          {@link Locale#ROOT} if it is not known
+   */
+  default void parentFallback(Locale locale) {
+  }
+
+  /**
+   * A translation resource was requested from Zanata.
+   *
+   * @param baseName the base name
+   * @param language the Zanata locale id
+   * @param outcome "ok", "not-modified", "error" or "rejected" (not sent because of previous failures)
+   * @param durationNanos duration of the request
+   * @param bytes size of the downloaded response body
+   */
+  default void fetch(String baseName, String language, String outcome, long durationNanos, long bytes) {
+  }
+
+  /**
+   * The list of locales was requested from Zanata.
+   *
+   * @param success <code>false</code> if the request failed
+   * @param durationNanos duration of the request
+   */
+  default void localesFetch(boolean success, long durationNanos) {
+  }
+
+  /**
+   * All translations of a locale were (re)loaded.
+   *
+   * @param locale the locale
+   * @param success <code>false</code> if some resources could not be loaded
+   * @param durationNanos duration of the load
+   */
+  default void load(Locale locale, boolean success, long durationNanos) {
+  }
+
+  /**
+   * The cached translations of a locale were replaced.
+   *
+   * @param locale the locale
+   * @param entries number of texts now cached for the locale
+   */
+  default void cacheSize(Locale locale, int entries) {
+  }
+}
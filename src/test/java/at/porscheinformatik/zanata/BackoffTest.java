@@ -0,0 +1,15 @@
+package at.porscheinformatik.zanata;
+
+import org.junit.Test;
+
+public class BackoffTest {
+
+  @Test
+  public void doublesUpToMaximum() {
+    assert Backoff.delay(1000, 1) == 1000;
+    assert Backoff.delay(1000, 2) == 2000;
+    assert Backoff.delay(1000, 4) == 8000;
+    assert Backoff.delay(1000, 20) == Backoff.MAX_DELAY_MILLIS;
+    assert Backoff.delay(1000, Integer.MAX_VALUE) == Backoff.MAX_DELAY_MILLIS;
+  }
+}
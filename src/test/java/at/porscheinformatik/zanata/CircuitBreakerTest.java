@@ -0,0 +1,48 @@
+package at.porscheinformatik.zanata;
+
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+  @Test
+  public void opensAfterThreshold() {
+    CircuitBreaker circuitBreaker = new CircuitBreaker(2, 60 * 1000);
+
+    assert circuitBreaker.allowRequest();
+    circuitBreaker.recordFailure();
+    assert circuitBreaker.allowRequest();
+    circuitBreaker.recordFailure();
+
+    assert circuitBreaker.isOpen();
+    assert !circuitBreaker.allowRequest();
+  }
+
+  @Test
+  public void trialReleasedWithoutResult() {
+    CircuitBreaker circuitBreaker = new CircuitBreaker(1, 0);
+    circuitBreaker.allowRequest();
+    circuitBreaker.recordFailure();
+
+    // the trial ends with an unexpected exception, neither success nor failure is recorded
+    assert circuitBreaker.allowRequest();
+    circuitBreaker.releaseTrial();
+
+    assert circuitBreaker.allowRequest();
+    circuitBreaker.recordSuccess();
+    assert !circuitBreaker.isOpen();
+  }
+
+  @Test
+  public void trialOnlyReleasedByItsThread() throws InterruptedException {
+    CircuitBreaker circuitBreaker = new CircuitBreaker(1, 0);
+    circuitBreaker.allowRequest();
+    circuitBreaker.recordFailure();
+    assert circuitBreaker.allowRequest();
+
+    Thread other = new Thread(circuitBreaker::releaseTrial);
+    other.start();
+    other.join();
+
+    assert !circuitBreaker.allowRequest();
+  }
+}
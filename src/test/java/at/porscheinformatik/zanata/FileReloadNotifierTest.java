@@ -0,0 +1,45 @@
+package at.porscheinformatik.zanata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileReloadNotifierTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void deliversNotificationsOfOtherNodesOnce() {
+    FileReloadNotifier node1 = new FileReloadNotifier(temporaryFolder.getRoot());
+    FileReloadNotifier node2 = new FileReloadNotifier(temporaryFolder.getRoot());
+    List<String> received = new ArrayList<>();
+    ReloadNotifier.Listener listener = new ReloadNotifier.Listener() {
+      @Override
+      public void reloaded(Collection<String> documents) {
+        received.add("reload " + documents);
+      }
+
+      @Override
+      public void cleared() {
+        received.add("clear");
+      }
+    };
+
+    node1.publishReload(Arrays.asList("messages/de-AT", "app/errors/de"));
+    node1.publishClear();
+    node2.publishReload(Collections.singletonList("messages/fr"));
+
+    node2.poll(listener);
+    assert received.equals(Arrays.asList("reload [messages/de-AT, app/errors/de]", "clear"));
+
+    node2.poll(listener);
+    assert received.size() == 2;
+  }
+}
@@ -0,0 +1,70 @@
+package at.porscheinformatik.zanata;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class MessageTemplateTest {
+
+  private static final List<String> SIMPLE_PATTERNS = Arrays.asList(
+    "My argument is {0}",
+    "{1} and {0} and {1}",
+    "{0}",
+    "It''s {0}",
+    "'{0}' is not replaced, {0} is",
+    "Quoted 'text with ''quotes'' and {braces}' and {0}",
+    "Unterminated 'quote {0}",
+    "Closing } brace {0}",
+    "Missing argument {5}",
+    "Leading zeros {00}",
+    "Only quotes: don't",
+    "");
+
+  private static final List<String> COMPLEX_PATTERNS = Arrays.asList(
+    "{0,number,integer} items",
+    "{0,choice,0#none|1#one|1<many}",
+    "{ 0}",
+    "{argument}",
+    "Unmatched {0");
+
+  @Test
+  public void formatsLikeMessageFormat() {
+    Object[][] argumentLists = {
+      null,
+      new Object[0],
+      new Object[]{"a"},
+      new Object[]{"a", "b'c{0}"},
+      new Object[]{null, Locale.GERMAN},
+    };
+    for (String pattern : SIMPLE_PATTERNS) {
+      MessageTemplate template = MessageTemplate.compile(pattern);
+      assert template != MessageTemplate.COMPLEX : pattern;
+      for (Object[] args : argumentLists) {
+        String expected = new MessageFormat(pattern, Locale.GERMAN).format(args);
+        String actual = template != null ? template.format(args) : pattern;
+        assert expected.equals(actual) : pattern + ": expected " + expected + " but was " + actual;
+      }
+    }
+  }
+
+  @Test
+  public void complexPatternsNotCompiled() {
+    for (String pattern : COMPLEX_PATTERNS) {
+      assert MessageTemplate.compile(pattern) == MessageTemplate.COMPLEX : pattern;
+      assert MessageTemplate.COMPLEX.format(new Object[]{1}) == null;
+    }
+  }
+
+  @Test
+  public void localeDependentArgumentsNotFormatted() {
+    MessageTemplate template = MessageTemplate.compile("{0} at {1}");
+    assert template.format(new Object[]{1234.5, "x"}) == null;
+    assert template.format(new Object[]{"x", new Date()}) == null;
+    // arguments without placeholder are ignored, like in MessageFormat
+    assert "x at y".equals(template.format(new Object[]{"x", "y", 1234.5}));
+  }
+}
@@ -0,0 +1,43 @@
+package at.porscheinformatik.zanata;
+
+import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class TranslationIndexTest {
+
+  @Test
+  public void formatsSharedByLocalesWithPrivateUseExtensions() {
+    TranslationIndex index = index("{0} Artikel");
+
+    MessageFormat messageFormat = index.getMessageFormat("items", Locale.forLanguageTag("de-AT-x-a"), 100);
+    assert messageFormat == index.getMessageFormat("items", Locale.forLanguageTag("de-AT-x-b"), 100);
+    assert messageFormat == index.getMessageFormat("items", new Locale("de", "AT"), 100);
+    assert messageFormat != index.getMessageFormat("items", Locale.forLanguageTag("de-AT-u-nu-arab"), 100);
+  }
+
+  @Test
+  public void formatsCachedForLimitedNumberOfLocales() {
+    TranslationIndex index = index("{0} Artikel");
+    for (int i = 0; i < 16; i++) {
+      index.getMessageFormat("items", new Locale("de", "AT", "V" + i), 100);
+    }
+
+    Locale oneMore = new Locale("de", "AT", "other");
+    MessageFormat messageFormat = index.getMessageFormat("items", oneMore, 100);
+    assert messageFormat != index.getMessageFormat("items", oneMore, 100);
+    assert "3 Artikel".equals(messageFormat.format(new Object[] { 3 }));
+
+    // the locales cached first stay cached
+    Locale first = new Locale("de", "AT", "V0");
+    assert index.getMessageFormat("items", first, 100) == index.getMessageFormat("items", first, 100);
+  }
+
+  private static TranslationIndex index(String content) {
+    KeyTable keyTable = new KeyTable();
+    TranslationEntries entries = new TranslationEntries.Builder(keyTable).add("items", content).build();
+    return TranslationIndex.of(keyTable, Collections.singletonList(entries), true);
+  }
+}
@@ -0,0 +1,43 @@
+package at.porscheinformatik.zanata;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import at.porscheinformatik.zanata.ZanataMessageSource.ContentState;
+
+public class TranslationsParserTest {
+
+  @Test
+  public void keepsOnlyAcceptedStates() throws IOException {
+    String json = "{\"links\":[{\"href\":\"x\"}],\"textFlowTargets\":["
+      + "{\"resId\":\"text1\",\"state\":\"Translated\",\"translator\":{\"name\":\"a\"},\"content\":\"Hallo Welt\","
+      + "\"contents\":[\"Hallo Welt\"],\"revision\":3},"
+      + "{\"state\":\"NeedReview\",\"resId\":\"text2\",\"content\":\"Fuzzy\"},"
+      + "{\"content\":\"Grüß Gott\",\"resId\":\"text3\",\"state\":\"Approved\"},"
+      + "{\"resId\":\"text4\",\"state\":\"Unknown\",\"content\":\"?\"}"
+      + "],\"extensions\":{}}";
+
+    TranslationEntries entries = parse(json);
+
+    assert entries.size() == 2;
+    assert "text1".equals(entries.resId(0));
+    assert "Hallo Welt".equals(entries.content(0));
+    assert "text3".equals(entries.resId(1));
+    assert "Grüß Gott".equals(entries.content(1));
+  }
+
+  @Test
+  public void emptyBody() throws IOException {
+    assert parse("").size() == 0;
+    assert parse("{}").size() == 0;
+  }
+
+  private static TranslationEntries parse(String json) throws IOException {
+    return TranslationsParser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+      Arrays.asList(ContentState.Translated, ContentState.Approved), new KeyTable());
+  }
+}
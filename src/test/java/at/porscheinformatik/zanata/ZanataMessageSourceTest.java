@@ -3,16 +3,44 @@ package at.porscheinformatik.zanata;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.anything;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.test.web.client.response.MockRestResponseCreators;
@@ -22,6 +50,10 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import at.porscheinformatik.zanata.ZanataMessageSource.ContentState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 public class ZanataMessageSourceTest {
 
@@ -65,6 +97,9 @@ public class ZanataMessageSourceTest {
     TEXT_INVALID_ARGUMENT.state = ContentState.Translated;
   }
 
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private final ObjectMapper objectMapper = new ObjectMapper();
   private ZanataMessageSource messageSource;
   private ZanataMessageSource messageSourceWithFallback;
@@ -99,6 +134,8 @@ public class ZanataMessageSourceTest {
 
   @After
   public void verify() {
+    messageSource.destroy();
+    messageSourceWithFallback.destroy();
     mockServer.verify();
   }
 
@@ -136,6 +173,497 @@ public class ZanataMessageSourceTest {
     assert "Hallo Welt 2".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
   }
 
+  @Test
+  public void concurrentLoadsFetchOnce() throws Exception {
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    ZanataMessageSource.TranslationsResource answer = new ZanataMessageSource.TranslationsResource();
+    answer.textFlowTargets.add(TEXT_1);
+    mockServer
+      .expect(requestTo("https://my-zanata/zanata/rest/projects/p/MyApp/iterations/i/myiteration/r/messages/translations/de"))
+      .andRespond(request -> {
+        try {
+          Thread.sleep(200);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return withSuccess(objectMapper.writeValueAsString(answer), MediaType.APPLICATION_JSON).createResponse(request);
+      });
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> messageSource.getMessage("text1", null, Locale.GERMAN)));
+      }
+      for (Future<String> result : results) {
+        assert "Hallo Welt".equals(result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void reloadAllKeepsTranslationsOnError() throws JsonProcessingException {
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    mockServer.expect(anything()).andRespond(MockRestResponseCreators.withServerError());
+    mockCallTranslations(Locale.GERMAN, TEXT_2);
+
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+    assert messageSource.getLastReloadTime() == null;
+
+    messageSource.reloadAll();
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+    assert messageSource.getReloadFailureCount() == 1;
+    assert messageSource.getLastReloadTime() == null;
+
+    messageSource.reloadAll();
+    assert "Hallo Welt 2".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+    assert messageSource.getReloadFailureCount() == 1;
+    assert messageSource.getLastReloadTime() != null;
+  }
+
+  @Test
+  public void reloadAllWithMissingDocument() throws JsonProcessingException {
+    messageSource.setBaseNames("messages", "missing");
+    String uri = "https://my-zanata/zanata/rest/projects/p/MyApp/iterations/i/myiteration";
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    mockServer.expect(requestTo(uri + "/r/missing/translations/de")).andRespond(withStatus(HttpStatus.NOT_FOUND));
+    mockCallTranslations(Locale.GERMAN, TEXT_2);
+    mockServer.expect(requestTo(uri + "/r/missing/translations/de")).andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+    // Zanata has no such document, which is no failure
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+    messageSource.reloadAll();
+    assert "Hallo Welt 2".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+    assert messageSource.getReloadFailureCount() == 0;
+    assert messageSource.getLastReloadTime() != null;
+  }
+
+  @Test
+  public void circuitBreakerServesLastTranslations() throws JsonProcessingException {
+    messageSource.setCircuitBreakerThreshold(1);
+    messageSource.setCircuitBreakerOpenMillis(60 * 1000);
+    messageSource.setFailureRetryMillis(-1);
+    mockCallLocales(Locale.GERMAN.toLanguageTag(), Locale.FRENCH.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    mockServer.expect(anything()).andRespond(MockRestResponseCreators.withServerError());
+
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+    messageSource.reload(Locale.GERMAN);
+    assert messageSource.isCircuitOpen();
+
+    // no more requests while the circuit is open
+    messageSource.reload(Locale.GERMAN);
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+    assert "default".equals(messageSource.getMessage("text1", null, "default", Locale.FRENCH));
+  }
+
+  @Test
+  public void unreachableZanataSkipsRemainingDocuments() throws JsonProcessingException {
+    messageSource.setBaseNames("bundle1", "bundle2");
+    messageSource.setFailureRetryMillis(-1);
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockServer
+      .expect(requestTo("https://my-zanata/zanata/rest/projects/p/MyApp/iterations/i/myiteration/r/bundle1/translations/de"))
+      .andRespond(request -> {
+        throw new SocketTimeoutException("Read timed out");
+      });
+
+    // bundle2 is not requested anymore
+    assert "default".equals(messageSource.getMessage("text1", null, "default", Locale.GERMAN));
+  }
+
+  @Test
+  public void lookupDoesNotWaitForSlowLoad() throws Exception {
+    messageSource.setMaxLoadWaitMillis(50);
+    CountDownLatch zanataAnswers = new CountDownLatch(1);
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    ZanataMessageSource.TranslationsResource answer = new ZanataMessageSource.TranslationsResource();
+    answer.textFlowTargets.add(TEXT_1);
+    mockServer
+      .expect(requestTo("https://my-zanata/zanata/rest/projects/p/MyApp/iterations/i/myiteration/r/messages/translations/de"))
+      .andRespond(request -> {
+        try {
+          zanataAnswers.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return withSuccess(objectMapper.writeValueAsString(answer), MediaType.APPLICATION_JSON).createResponse(request);
+      });
+
+    assert "default".equals(messageSource.getMessage("text1", null, "default", Locale.GERMAN));
+    assert !messageSource.isLoaded(Locale.GERMAN);
+
+    zanataAnswers.countDown();
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!messageSource.isLoaded(Locale.GERMAN) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, "default", Locale.GERMAN));
+  }
+
+  @Test
+  public void reloadAllRequestsSharedDocumentsOnce() throws JsonProcessingException {
+    Locale austria = new Locale("de", "AT");
+    // reloadAll requests the documents in no particular order
+    RestTemplate restTemplate = new RestTemplate();
+    mockServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+    messageSource = createZanataMessageSource(restTemplate);
+    mockCallLocales(Locale.GERMAN.toLanguageTag(), Locale.GERMANY.toLanguageTag(), austria.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    mockCallTranslations(Locale.GERMAN, TEXT_2);
+    mockCallTranslations(Locale.GERMANY);
+    mockCallTranslations(Locale.GERMANY);
+    mockCallTranslations(austria);
+    mockCallTranslations(austria);
+
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMANY));
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, austria));
+
+    // "de" is part of both locales but requested only once
+    messageSource.reloadAll();
+    assert "Hallo Welt 2".equals(messageSource.getMessage("text1", null, Locale.GERMANY));
+    assert "Hallo Welt 2".equals(messageSource.getMessage("text1", null, austria));
+  }
+
+  @Test
+  public void reloadRequestsSharedDocumentsOnce() throws JsonProcessingException {
+    Locale austria = new Locale("de", "AT");
+    mockCallLocales(Locale.GERMAN.toLanguageTag(), Locale.GERMANY.toLanguageTag(), austria.toLanguageTag());
+    mockCallTranslations(Locale.GERMANY);
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    mockCallTranslations(austria);
+    mockCallTranslations(Locale.GERMANY);
+    mockCallTranslations(Locale.GERMAN, TEXT_2);
+    mockCallTranslations(austria);
+
+    // austria uses the "de" document loaded for germany
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMANY));
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, austria));
+
+    // "de" is part of both locales but requested only once
+    messageSource.reload(Locale.GERMANY, austria);
+    assert "Hallo Welt 2".equals(messageSource.getMessage("text1", null, Locale.GERMANY));
+    assert "Hallo Welt 2".equals(messageSource.getMessage("text1", null, austria));
+  }
+
+  @Test
+  public void equivalentLocalesShareTranslations() throws JsonProcessingException {
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, new Locale("de", "AT", "x")));
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMANY));
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+    // locales without Zanata translations do not request anything
+    assert "default".equals(messageSource.getMessage("text1", null, "default", new Locale("xx")));
+    assert "default".equals(messageSource.getMessage("text1", null, "default", new Locale("en", "150")));
+  }
+
+  @Test
+  public void leastRecentlyUsedLocalesEvicted() throws JsonProcessingException {
+    messageSource.setMaxCachedLocales(1);
+    mockCallLocales(Locale.GERMAN.toLanguageTag(), Locale.FRENCH.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    mockCallTranslations(Locale.FRENCH, TEXT_2);
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+    assert "Hallo Welt 2".equals(messageSource.getMessage("text1", null, Locale.FRENCH));
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+  }
+
+  @Test
+  public void allMessagesBoundedLikeLocales() throws JsonProcessingException {
+    messageSource.setMaxCachedLocales(1);
+    mockCallLocales(Locale.GERMAN.toLanguageTag(), Locale.FRENCH.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    mockCallTranslations(Locale.FRENCH, TEXT_2);
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+
+    // both requested locales use the translations of "de", but only one result is kept
+    Map<String, String> germany = messageSource.getAllMessages(Locale.GERMANY);
+    Map<String, String> german = messageSource.getAllMessages(Locale.GERMAN);
+    assert german == messageSource.getAllMessages(Locale.GERMAN);
+    assert germany != messageSource.getAllMessages(Locale.GERMANY);
+
+    assert "Hallo Welt 2".equals(messageSource.getAllMessages(Locale.FRENCH).get("text1"));
+    assert "Hallo Welt".equals(messageSource.getAllMessages(Locale.GERMANY).get("text1"));
+  }
+
+  @Test
+  public void reloadNotModified() throws JsonProcessingException {
+    ZanataMessageSource.TranslationsResource answer = new ZanataMessageSource.TranslationsResource();
+    answer.textFlowTargets.add(TEXT_1);
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag("\"v1\"");
+    String uri = "https://my-zanata/zanata/rest/projects/p/MyApp/iterations/i/myiteration/r/messages/translations/de";
+
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockServer.expect(requestTo(uri))
+      .andRespond(withSuccess(objectMapper.writeValueAsString(answer), MediaType.APPLICATION_JSON).headers(headers));
+    mockServer.expect(requestTo(uri))
+      .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+      .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+    messageSource.reload(Locale.GERMAN);
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+    assert messageSource.getFullDownloadCount() == 1;
+    assert messageSource.getNotModifiedCount() == 1;
+  }
+
+  @Test
+  public void startFromSnapshot() throws Exception {
+    ZanataMessageSource.TranslationsResource answer = new ZanataMessageSource.TranslationsResource();
+    answer.textFlowTargets.add(TEXT_1);
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag("\"v1\"");
+    String uri = "https://my-zanata/zanata/rest/projects/p/MyApp/iterations/i/myiteration/r/messages/translations/de";
+
+    messageSource.setSnapshotDirectory(temporaryFolder.getRoot());
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockServer.expect(requestTo(uri))
+      .andRespond(withSuccess(objectMapper.writeValueAsString(answer), MediaType.APPLICATION_JSON).headers(headers));
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+
+    // a new instance serves the stored translations and revalidates them in the background
+    RestTemplate restTemplate = new RestTemplate();
+    ZanataMessageSource restarted = createZanataMessageSource(restTemplate);
+    restarted.setSnapshotDirectory(temporaryFolder.getRoot());
+    mockServer = MockRestServiceServer.createServer(restTemplate);
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockServer.expect(requestTo(uri))
+      .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+      .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+    try {
+      assert "Hallo Welt".equals(restarted.getMessage("text1", null, Locale.GERMAN));
+      for (int i = 0; i < 50 && restarted.getNotModifiedCount() == 0; i++) {
+        Thread.sleep(100);
+      }
+      assert restarted.getNotModifiedCount() == 1;
+      assert restarted.getFullDownloadCount() == 0;
+    } finally {
+      restarted.destroy();
+    }
+  }
+
+  @Test
+  public void reloadPropagatedToOtherNodes() throws JsonProcessingException {
+    List<ReloadNotifier.Listener> cluster = new ArrayList<>();
+    RestTemplate otherRestTemplate = new RestTemplate();
+    MockRestServiceServer otherServer = MockRestServiceServer.createServer(otherRestTemplate);
+    ZanataMessageSource otherNode = createZanataMessageSource(otherRestTemplate);
+    // createZanataMessageSource also assigns the field
+    messageSource = messageSourceWithFallback;
+    otherNode.setSnapshotDirectory(temporaryFolder.getRoot());
+    otherNode.setReloadNotifier(new InMemoryNotifier(cluster));
+    otherNode.afterPropertiesSet();
+    messageSource.setReloadNotifier(new InMemoryNotifier(cluster));
+    messageSource.afterPropertiesSet();
+
+    String uri = "https://my-zanata/zanata/rest/projects/p/MyApp/iterations/i/myiteration";
+    otherServer.expect(requestTo(uri + "/locales"))
+      .andRespond(withSuccess("[{\"localeId\":\"de\"}]", MediaType.APPLICATION_JSON));
+    otherServer.expect(requestTo(uri + "/r/messages/translations/de"))
+      .andRespond(withSuccess("{\"textFlowTargets\":[{\"resId\":\"text1\",\"state\":\"Translated\","
+        + "\"content\":\"Hallo Welt\"}]}", MediaType.APPLICATION_JSON));
+    assert "Hallo Welt".equals(otherNode.getMessage("text1", null, Locale.GERMAN));
+
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    mockCallTranslations(Locale.GERMAN, TEXT_2);
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+    messageSource.setSnapshotDirectory(temporaryFolder.getRoot());
+
+    // the other node reads the new texts from the shared snapshot directory without calling Zanata
+    messageSource.reload(Locale.GERMAN);
+    assert "Hallo Welt 2".equals(otherNode.getMessage("text1", null, Locale.GERMAN));
+    otherServer.verify();
+    otherNode.destroy();
+  }
+
+  @Test
+  public void sharedDocumentReloadPropagatedToOtherLocales() throws JsonProcessingException {
+    Locale austria = new Locale("de", "AT");
+    List<ReloadNotifier.Listener> cluster = new ArrayList<>();
+    RestTemplate otherRestTemplate = new RestTemplate();
+    MockRestServiceServer otherServer = MockRestServiceServer.createServer(otherRestTemplate);
+    ZanataMessageSource otherNode = createZanataMessageSource(otherRestTemplate);
+    // createZanataMessageSource also assigns the field
+    messageSource = messageSourceWithFallback;
+    otherNode.setSnapshotDirectory(temporaryFolder.getRoot());
+    otherNode.setReloadNotifier(new InMemoryNotifier(cluster));
+    otherNode.afterPropertiesSet();
+    messageSource.setReloadNotifier(new InMemoryNotifier(cluster));
+    messageSource.afterPropertiesSet();
+
+    // the other node only uses the "de" document
+    String uri = "https://my-zanata/zanata/rest/projects/p/MyApp/iterations/i/myiteration";
+    otherServer.expect(requestTo(uri + "/locales"))
+      .andRespond(withSuccess("[{\"localeId\":\"de\"},{\"localeId\":\"de-AT\"}]", MediaType.APPLICATION_JSON));
+    otherServer.expect(requestTo(uri + "/r/messages/translations/de"))
+      .andRespond(withSuccess("{\"textFlowTargets\":[{\"resId\":\"text1\",\"state\":\"Translated\","
+        + "\"content\":\"Hallo Welt\"}]}", MediaType.APPLICATION_JSON));
+    assert "Hallo Welt".equals(otherNode.getMessage("text1", null, Locale.GERMAN));
+
+    // this node only uses de-AT, which overrides text1, so the change in "de" does not change its texts
+    mockCallLocales(Locale.GERMAN.toLanguageTag(), austria.toLanguageTag());
+    mockCallTranslations(austria, TEXT_1, TEXT_3);
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    mockCallTranslations(austria, TEXT_1, TEXT_3);
+    mockCallTranslations(Locale.GERMAN, TEXT_2);
+    assert "Hy there".equals(messageSource.getMessage("text3", null, austria));
+    messageSource.setSnapshotDirectory(temporaryFolder.getRoot());
+
+    messageSource.reload(austria);
+    assert "Hallo Welt 2".equals(otherNode.getMessage("text1", null, Locale.GERMAN));
+    otherServer.verify();
+    otherNode.destroy();
+  }
+
+  @Test
+  public void reactiveMessages() throws JsonProcessingException {
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    ReactiveZanataMessageSource reactiveMessageSource = new ReactiveZanataMessageSource(messageSource);
+
+    assert !messageSource.isLoaded(Locale.GERMANY);
+    Mono<String> message = reactiveMessageSource.getMessage("text1", null, Locale.GERMANY);
+    assert "Hallo Welt".equals(message.block());
+    assert messageSource.isLoaded(Locale.GERMANY);
+    assert "default".equals(reactiveMessageSource.getMessage("text2", null, "default", Locale.GERMANY).block());
+  }
+
+  @Test
+  public void reactiveParentLoadedOnScheduler() throws JsonProcessingException {
+    RestTemplate parentRestTemplate = new RestTemplate();
+    MockRestServiceServer parentServer = MockRestServiceServer.createServer(parentRestTemplate);
+    ZanataMessageSource parent = createZanataMessageSource(parentRestTemplate);
+    // createZanataMessageSource also assigns the field
+    messageSource = messageSourceWithFallback;
+    messageSource.setParentMessageSource(parent);
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+
+    // the locale is loaded, but the parent still has to load it: must not happen on the subscribing thread
+    List<String> loadingThreads = new ArrayList<>();
+    String uri = "https://my-zanata/zanata/rest/projects/p/MyApp/iterations/i/myiteration";
+    parentServer.expect(requestTo(uri + "/locales")).andRespond(request -> {
+      loadingThreads.add(Thread.currentThread().getName());
+      return withSuccess("[{\"localeId\":\"de\"}]", MediaType.APPLICATION_JSON).createResponse(request);
+    });
+    parentServer.expect(requestTo(uri + "/r/messages/translations/de"))
+      .andRespond(withSuccess("{\"textFlowTargets\":[{\"resId\":\"text3\",\"state\":\"Translated\","
+        + "\"content\":\"Hy there\"}]}", MediaType.APPLICATION_JSON));
+    ReactiveZanataMessageSource reactiveMessageSource = new ReactiveZanataMessageSource(messageSource);
+    Scheduler scheduler = Schedulers.newSingle("zanata-test");
+    reactiveMessageSource.setScheduler(scheduler);
+
+    assert "Hy there".equals(reactiveMessageSource.getMessage("text3", null, Locale.GERMAN).block());
+    assert loadingThreads.size() == 1 && loadingThreads.get(0).startsWith("zanata-test");
+    // now everything is loaded, resolved on the subscribing thread
+    assert "Hy there".equals(reactiveMessageSource.getMessage("text3", null, Locale.GERMAN).block());
+    scheduler.dispose();
+    parentServer.verify();
+    parent.destroy();
+  }
+
+  @Test
+  public void timeoutsSetAfterAuthentication() throws Exception {
+    try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      // accepts the request, but never answers
+      CompletableFuture<List<String>> requestHeaders = CompletableFuture.supplyAsync(() -> {
+        try (Socket socket = server.accept()) {
+          BufferedReader reader =
+            new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+          List<String> headers = new ArrayList<>();
+          for (String line = reader.readLine(); line != null && !line.isEmpty(); line = reader.readLine()) {
+            headers.add(line);
+          }
+          socket.getInputStream().read();
+          return headers;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+
+      ZanataMessageSource zanataMessageSource = new ZanataMessageSource();
+      zanataMessageSource.setProject("MyApp");
+      zanataMessageSource.setZanataBaseUrl("http://localhost:" + server.getLocalPort() + "/zanata");
+      zanataMessageSource.setIteration("myiteration");
+      zanataMessageSource.useAuthentcation("user", "token");
+      zanataMessageSource.setReadTimeout(200);
+      zanataMessageSource.setFailureRetryMillis(-1);
+      try {
+        long start = System.currentTimeMillis();
+        assert "default".equals(zanataMessageSource.getMessage("text1", null, "default", Locale.GERMAN));
+        assert System.currentTimeMillis() - start < 10000;
+        assert requestHeaders.get(5, TimeUnit.SECONDS).stream().anyMatch(header -> header.equals("X-Auth-User: user"));
+      } finally {
+        zanataMessageSource.destroy();
+      }
+    }
+  }
+
+  @Test
+  public void preloadOnStartup() throws JsonProcessingException {
+    mockCallLocales(Locale.GERMAN.toLanguageTag(), Locale.FRENCH.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    messageSource.setPreloadLocales(Locale.GERMAN);
+    messageSource.setWaitForPreload(true);
+
+    messageSource.afterSingletonsInstantiated();
+    mockServer.verify();
+
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+  }
+
+  @Test
+  public void preloadAllLocalesInBackground() throws Exception {
+    CountDownLatch zanataAnswers = new CountDownLatch(1);
+    ZanataMessageSource.LocaleDetails locale = new ZanataMessageSource.LocaleDetails();
+    locale.localeId = Locale.GERMAN.toLanguageTag();
+    String locales = objectMapper.writeValueAsString(new ZanataMessageSource.LocaleDetails[] { locale });
+    mockServer
+      .expect(requestTo("https://my-zanata/zanata/rest/projects/p/MyApp/iterations/i/myiteration/locales"))
+      .andRespond(request -> {
+        try {
+          zanataAnswers.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return withSuccess(locales, MediaType.APPLICATION_JSON).createResponse(request);
+      });
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    messageSource.setPreloadAllLocales(true);
+
+    // returns while the locale list is still requested
+    CompletableFuture<Void> preload = messageSource.preload();
+    assert !preload.isDone();
+
+    zanataAnswers.countDown();
+    preload.get(5, TimeUnit.SECONDS);
+    assert messageSource.isLoaded(Locale.GERMAN);
+  }
+
+  @Test
+  public void codesSharedAcrossLocales()throws JsonProcessingException {
+    mockCallLocales(Locale.GERMAN.toLanguageTag(), Locale.FRENCH.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    mockCallTranslations(Locale.FRENCH, TEXT_2, TEXT_3);
+
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+    assert "Hallo Welt 2".equals(messageSource.getMessage("text1", null, Locale.FRENCH));
+    assert "Hy there".equals(messageSource.getMessage("text3", null, Locale.FRENCH));
+    assert "default".equals(messageSource.getMessage("text3", null, "default", Locale.GERMAN));
+  }
+
   @Test
   public void langAndCountry() throws JsonProcessingException {
     mockCallLocales(Locale.GERMAN.toLanguageTag(), Locale.GERMANY.toLanguageTag());
@@ -153,6 +681,39 @@ public class ZanataMessageSourceTest {
     messageSource.getMessage("text1", null, Locale.ENGLISH);
   }
 
+  @Test
+  public void localesRetriedAfterError() throws JsonProcessingException {
+    messageSource.setLocalesRetryMillis(0);
+    mockServer
+      .expect(requestTo("https://my-zanata/zanata/rest/projects/p/MyApp/iterations/i/myiteration/locales"))
+      .andRespond(MockRestResponseCreators.withServerError());
+    mockCallLocales(Locale.FRENCH.toLanguageTag());
+    mockCallTranslations(Locale.FRENCH, TEXT_1);
+
+    assert "default".equals(messageSource.getMessage("text1", null, "default", Locale.GERMAN));
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.FRENCH));
+  }
+
+  @Test
+  public void localeRetriedAfterLocalesFailed() throws Exception {
+    messageSource.setLocalesRetryMillis(100);
+    messageSource.setFailureRetryMillis(10);
+    mockServer
+      .expect(requestTo("https://my-zanata/zanata/rest/projects/p/MyApp/iterations/i/myiteration/locales"))
+      .andRespond(MockRestResponseCreators.withServerError());
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+
+    assert "default".equals(messageSource.getMessage("text1", null, "default", Locale.GERMAN));
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!"Hallo Welt".equals(messageSource.getMessage("text1", null, "default", Locale.GERMAN))
+      && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, "default", Locale.GERMAN));
+  }
+
   @Test
   public void multipleBaseNames() throws JsonProcessingException {
     mockCallLocales(Locale.FRENCH.toLanguageTag());
@@ -163,6 +724,28 @@ public class ZanataMessageSourceTest {
     assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.FRENCH));
   }
 
+  @Test
+  public void reloadTimeoutSkipsRemainingResources() throws JsonProcessingException {
+    mockCallLocales(Locale.FRENCH.toLanguageTag());
+    messageSource.setBaseNames("bundle1", "bundle2");
+    messageSource.setReloadTimeout(100);
+    ZanataMessageSource.TranslationsResource answer = new ZanataMessageSource.TranslationsResource();
+    answer.textFlowTargets.add(TEXT_1);
+    mockServer
+      .expect(requestTo("https://my-zanata/zanata/rest/projects/p/MyApp/iterations/i/myiteration/r/bundle1/translations/fr"))
+      .andRespond(request -> {
+        try {
+          Thread.sleep(200);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return withSuccess(objectMapper.writeValueAsString(answer), MediaType.APPLICATION_JSON).createResponse(request);
+      });
+
+    // bundle2 is not requested anymore, the texts of bundle1 are used anyway
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.FRENCH));
+  }
+
   @Test
   public void allProperties() throws JsonProcessingException {
     mockCallLocales(Locale.US.toLanguageTag(), Locale.ENGLISH.toLanguageTag());
@@ -174,6 +757,97 @@ public class ZanataMessageSourceTest {
     assert "Hi deer".equals(allProperties.getProperty("text3"));
   }
 
+  @Test
+  public void batchMessages() throws JsonProcessingException {
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1, TEXT_3);
+
+    Map<String, String> messages =
+      messageSourceWithFallback.getMessages(Arrays.asList("text1", "text3", "text7", "missing"), Locale.GERMAN);
+    assert messages.size() == 3;
+    assert "Hallo Welt".equals(messages.get("text1"));
+    assert "Hy there".equals(messages.get("text3"));
+    assert "Translation from file".equals(messages.get("text7"));
+  }
+
+  @Test
+  public void batchMessagesLikeSingleMessages() throws JsonProcessingException {
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    StaticMessageSource grandparent = new StaticMessageSource();
+    grandparent.addMessage("text8", Locale.GERMAN, "Text from grandparent");
+    PropertiesMessageSource parent = new PropertiesMessageSource();
+    parent.addMessage("text9", Locale.GERMAN, "Parent text");
+    parent.setParentMessageSource(grandparent);
+    messageSource.setParentMessageSource(parent);
+    Properties commonMessages = new Properties();
+    commonMessages.setProperty("text10", "Common text");
+    messageSource.setCommonMessages(commonMessages);
+    messageSource.setAlwaysUseMessageFormat(true);
+
+    List<String> codes = Arrays.asList("text1", "text8", "text9", "text10", "missing");
+    Map<String, String> messages = messageSource.getMessages(codes, Locale.GERMAN);
+    assert messages.size() == 4;
+    assert "Text from grandparent".equals(messages.get("text8"));
+    assert "Common text".equals(messages.get("text10"));
+    for (String code : messages.keySet()) {
+      assert messages.get(code).equals(messageSource.getMessage(code, null, Locale.GERMAN));
+    }
+  }
+
+  @Test
+  public void batchMessagesThroughZanataParent() throws JsonProcessingException {
+    RestTemplate parentRestTemplate = new RestTemplate();
+    MockRestServiceServer parentServer = MockRestServiceServer.createServer(parentRestTemplate);
+    ZanataMessageSource parent = createZanataMessageSource(parentRestTemplate);
+    // createZanataMessageSource also assigns the field
+    messageSource = messageSourceWithFallback;
+    StaticMessageSource grandparent = new StaticMessageSource();
+    grandparent.addMessage("text8", Locale.GERMAN, "Text from grandparent");
+    parent.setParentMessageSource(grandparent);
+    parent.setUseCodeAsDefaultMessage(true);
+    messageSource.setParentMessageSource(parent);
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    String uri = "https://my-zanata/zanata/rest/projects/p/MyApp/iterations/i/myiteration";
+    parentServer.expect(requestTo(uri + "/locales"))
+      .andRespond(withSuccess("[{\"localeId\":\"de\"}]", MediaType.APPLICATION_JSON));
+    parentServer.expect(requestTo(uri + "/r/messages/translations/de"))
+      .andRespond(withSuccess("{\"textFlowTargets\":[{\"resId\":\"text3\",\"state\":\"Translated\","
+        + "\"content\":\"Hy there\"}]}", MediaType.APPLICATION_JSON));
+
+    // the parent's useCodeAsDefaultMessage is not used, like in getMessage
+    Map<String, String> messages =
+      messageSource.getMessages(Arrays.asList("text1", "text3", "text8", "missing"), Locale.GERMAN);
+    assert messages.size() == 3;
+    assert "Hallo Welt".equals(messages.get("text1"));
+    assert "Hy there".equals(messages.get("text3"));
+    assert "Text from grandparent".equals(messages.get("text8"));
+    parentServer.verify();
+    parent.destroy();
+  }
+
+  @Test
+  public void allMessagesCachedUntilReload() throws Exception {
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1, TEXT_3);
+    mockCallTranslations(Locale.GERMAN, TEXT_2);
+
+    Map<String, String> allMessages = messageSourceWithFallback.getAllMessages(Locale.GERMAN);
+    assert "Hallo Welt".equals(allMessages.get("text1"));
+    assert "Translation from file".equals(allMessages.get("text7"));
+    assert allMessages == messageSourceWithFallback.getAllMessages(Locale.GERMAN);
+
+    MessagesJson json = messageSourceWithFallback.getAllMessagesJson(Locale.GERMAN);
+    assert json == messageSourceWithFallback.getAllMessagesJson(Locale.GERMAN);
+    assert "{\"text1\":\"Hallo Welt\",\"text3\":\"Hy there\",\"text7\":\"Translation from file\"}"
+      .equals(new String(json.toByteArray(), StandardCharsets.UTF_8));
+
+    messageSourceWithFallback.reload(Locale.GERMAN);
+    assert "Hallo Welt 2".equals(messageSourceWithFallback.getAllMessages(Locale.GERMAN).get("text1"));
+    assert !json.getETag().equals(messageSourceWithFallback.getAllMessagesJson(Locale.GERMAN).getETag());
+  }
+
   @Test
   public void withAuthentication() throws JsonProcessingException {
     mockCallLocales(Locale.GERMAN.toLanguageTag());
@@ -212,6 +886,32 @@ public class ZanataMessageSourceTest {
     assert TEXT_5.content.equals(messageSource.getMessage("text5", null, locale3));
   }
 
+  @Test
+  public void parallelFetchKeepsLookupOrder() throws JsonProcessingException {
+    RestTemplate restTemplate = new RestTemplate();
+    messageSource = createZanataMessageSource(restTemplate);
+    messageSource.setBaseNames("bundle1", "bundle2");
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    messageSource.setFetchExecutor(executor);
+    mockServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+
+    Locale locale2 = new Locale("hu", "HU");
+    Locale locale1 = new Locale("hu");
+    mockCallLocales(locale2.toLanguageTag(), locale1.toLanguageTag());
+    mockCallTranslations(locale2, "bundle1", TEXT_4);
+    mockCallTranslations(locale1, "bundle1", TEXT_3, TEXT_5);
+    mockCallTranslations(locale2, "bundle2", TEXT_1);
+    mockCallTranslations(locale1, "bundle2", TEXT_2);
+
+    try {
+      assert TEXT_4.content.equals(messageSource.getMessage("text3", null, locale2));
+      assert TEXT_5.content.equals(messageSource.getMessage("text5", null, locale2));
+      assert TEXT_1.content.equals(messageSource.getMessage("text1", null, locale2));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void testMessageCodeWithArgument() throws JsonProcessingException {
     mockCallLocales(Locale.GERMAN.toLanguageTag());
@@ -232,6 +932,111 @@ public class ZanataMessageSourceTest {
     messageSource.getMessage(TEXT_INVALID_ARGUMENT.resId, new Object[]{"test"}, Locale.GERMAN);
   }
 
+  @Test
+  public void messageFormatCachedUntilChanged() throws JsonProcessingException {
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_WITH_ARGUMENT, TEXT_1);
+    mockCallTranslations(Locale.GERMAN, TEXT_WITH_ARGUMENT, TEXT_1);
+    mockCallTranslations(Locale.GERMAN, TEXT_WITH_ARGUMENT, TEXT_2);
+
+    MessageFormat messageFormat = messageSource.resolveCode(TEXT_WITH_ARGUMENT.resId, Locale.GERMAN);
+    MessageFormat otherFormat = messageSource.resolveCode(TEXT_1.resId, Locale.GERMAN);
+    assert messageFormat == messageSource.resolveCode(TEXT_WITH_ARGUMENT.resId, Locale.GERMAN);
+
+    messageSource.reload(Locale.GERMAN);
+    assert messageFormat == messageSource.resolveCode(TEXT_WITH_ARGUMENT.resId, Locale.GERMAN);
+
+    // only the format of the changed text is parsed again
+    messageSource.reload(Locale.GERMAN);
+    assert messageFormat == messageSource.resolveCode(TEXT_WITH_ARGUMENT.resId, Locale.GERMAN);
+    assert otherFormat != messageSource.resolveCode(TEXT_1.resId, Locale.GERMAN);
+    assert "My argument is test".equals(messageSource.getMessage(TEXT_WITH_ARGUMENT.resId, new Object[]{"test"}, Locale.GERMAN));
+  }
+
+  @Test
+  public void reloadNotifiesChangedCodes() throws Exception {
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1, TEXT_3);
+    mockCallTranslations(Locale.GERMAN, TEXT_1, TEXT_3);
+    mockCallTranslations(Locale.GERMAN, TEXT_2, TEXT_3, TEXT_5);
+
+    List<Set<String>> changes = new ArrayList<>();
+    messageSource.addTranslationsChangedListener((locale, codes) -> changes.add(codes));
+    Map<String, String> allMessages = messageSource.getAllMessages(Locale.GERMAN);
+
+    messageSource.reload(Locale.GERMAN);
+    assert changes.isEmpty();
+    assert allMessages == messageSource.getAllMessages(Locale.GERMAN);
+
+    messageSource.reload(Locale.GERMAN);
+    assert changes.size() == 1;
+    assert new HashSet<>(Arrays.asList("text1", "text5")).equals(changes.get(0));
+    assert "Hallo Welt 2".equals(messageSource.getAllMessages(Locale.GERMAN).get("text1"));
+    assert "My World".equals(messageSource.getAllMessages(Locale.GERMAN).get("text5"));
+  }
+
+  @Test(timeout = 10000)
+  public void listenerMayReloadChangedLocale() throws Exception {
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    mockCallTranslations(Locale.GERMAN, TEXT_2);
+    mockCallTranslations(Locale.GERMAN, TEXT_2);
+
+    List<Set<String>> changes = new ArrayList<>();
+    messageSource.addTranslationsChangedListener((locale, codes) -> {
+      changes.add(codes);
+      // the locale is not loading anymore, so this does not wait for the reload that calls the listener
+      messageSource.reload(locale);
+    });
+    assert "Hallo Welt".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+
+    messageSource.reload(Locale.GERMAN);
+    assert changes.size() == 1;
+    assert "Hallo Welt 2".equals(messageSource.getMessage("text1", null, Locale.GERMAN));
+  }
+
+  @Test
+  public void metrics() throws JsonProcessingException {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    messageSourceWithFallback.setMetrics(new MicrometerZanataMetrics(registry));
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+
+    assert "Hallo Welt".equals(messageSourceWithFallback.getMessage("text1", null, Locale.GERMAN));
+    assert "Translation from file".equals(messageSourceWithFallback.getMessage("text7", null, Locale.GERMAN));
+
+    assert registry.get("zanata.lookups").tags("locale", "de", "result", "hit").counter().count() == 1;
+    assert registry.get("zanata.lookups").tags("locale", "de", "result", "miss").counter().count() == 1;
+    assert registry.get("zanata.lookups.parent").tags("locale", "de").counter().count() == 1;
+    assert registry.get("zanata.fetch").tags("basename", "messages", "outcome", "ok").timer().count() == 1;
+    assert registry.get("zanata.fetch.bytes").tags("language", "de").summary().totalAmount() > 0;
+    assert registry.get("zanata.locales.fetch").tags("outcome", "ok").timer().count() == 1;
+    assert registry.get("zanata.load").tags("locale", "de", "outcome", "ok").timer().count() == 1;
+    assert registry.get("zanata.cache.entries").tags("locale", "de").gauge().value() == 1;
+
+    // requested locales are counted for the Zanata locale they are mapped to
+    assert "Hallo Welt".equals(messageSourceWithFallback.getMessage("text1", null, Locale.GERMANY));
+    assert "Hallo Welt".equals(messageSourceWithFallback.getMessage("text1", new Object[]{"x"}, new Locale("de", "CH")));
+    assert registry.get("zanata.lookups").tags("locale", "de", "result", "hit").counter().count() == 3;
+    assert registry.find("zanata.lookups").tags("locale", "de_DE").counter() == null;
+    assert registry.find("zanata.lookups").tags("locale", "de_CH").counter() == null;
+  }
+
+  @Test
+  public void parentOnlyCodes() throws JsonProcessingException {
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1, TEXT_7);
+
+    // text7 is not accepted and only exists in the parent, unknown is in no locale
+    for (int i = 0; i < 3; i++) {
+      assert "Translation from file".equals(messageSourceWithFallback.getMessage("text7", null, Locale.GERMAN));
+      assert "Translation from file".equals(
+        messageSourceWithFallback.getMessage("text7", new Object[]{"x"}, Locale.GERMAN));
+      assert "default".equals(messageSourceWithFallback.getMessage("unknown", null, "default", Locale.GERMAN));
+    }
+    assert messageSourceWithFallback.getFullDownloadCount() == 1;
+  }
+
   @Test
   public void testFallbackOnInvalidState() throws JsonProcessingException {
     mockCallLocales(Locale.GERMAN.toLanguageTag());
@@ -246,6 +1051,54 @@ public class ZanataMessageSourceTest {
     assert "Translation from file".equals(messageSourceWithFallback.getMessage(TEXT_7.resId, null, Locale.GERMAN));
   }
 
+  @Test
+  public void allPropertiesContainChangedParentTexts() throws JsonProcessingException {
+    mockCallLocales(Locale.GERMAN.toLanguageTag());
+    mockCallTranslations(Locale.GERMAN, TEXT_1);
+    PropertiesMessageSource parent = new PropertiesMessageSource();
+    parent.properties.setProperty("text9", "Parent text");
+    messageSource.setParentMessageSource(parent);
+
+    assert "Parent text".equals(messageSource.getAllProperties(Locale.GERMAN).getProperty("text9"));
+    parent.properties.setProperty("text9", "Changed parent text");
+    Properties allProperties = messageSource.getAllProperties(Locale.GERMAN);
+    assert "Changed parent text".equals(allProperties.getProperty("text9"));
+    assert "Hallo Welt".equals(allProperties.getProperty("text1"));
+  }
+
+  /**
+   * Delivers the notifications of a node directly to all other nodes.
+   */
+  private static class InMemoryNotifier implements ReloadNotifier {
+    private final List<Listener> cluster;
+    private Listener listener;
+
+    InMemoryNotifier(List<Listener> cluster) {
+      this.cluster = cluster;
+    }
+
+    @Override
+    public void publishReload(Collection<String> documents) {
+      cluster.stream().filter(other -> other != listener).forEach(other -> other.reloaded(documents));
+    }
+
+    @Override
+    public void publishClear() {
+      cluster.stream().filter(other -> other != listener).forEach(Listener::cleared);
+    }
+
+    @Override
+    public void start(Listener listener) {
+      this.listener = listener;
+      cluster.add(listener);
+    }
+
+    @Override
+    public void stop() {
+      cluster.remove(listener);
+    }
+  }
+
   private void mockCallTranslations(Locale locale, ZanataMessageSource.TextFlowTarget... textFlowTarget)
       throws JsonProcessingException {
     mockCallTranslations(locale, "messages", textFlowTarget);
@@ -275,4 +1128,16 @@ public class ZanataMessageSourceTest {
         + "/iterations/i/myiteration/locales"))
       .andRespond(withSuccess(objectMapper.writeValueAsString(answer), MediaType.APPLICATION_JSON));
   }
+
+  /**
+   * Parent whose texts can be changed at runtime, like a reloadable bundle.
+   */
+  private static class PropertiesMessageSource extends StaticMessageSource implements AllPropertiesSource {
+    final Properties properties = new Properties();
+
+    @Override
+    public Properties getAllProperties(Locale locale) {
+      return properties;
+    }
+  }
 }